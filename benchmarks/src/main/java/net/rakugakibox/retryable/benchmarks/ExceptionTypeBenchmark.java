@@ -0,0 +1,106 @@
+package net.rakugakibox.retryable.benchmarks;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import net.rakugakibox.retryable.Retryable;
+import net.rakugakibox.retryable.RetryableProcess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark of limiting the retryable exception types with {@link Retryable#on(Class...)}.
+ * The failure matches the last type, which is the worst case of the linear search.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExceptionTypeBenchmark {
+
+    /**
+     * The result.
+     */
+    private static final String RESULT = "the result.";
+
+    /**
+     * The failure.
+     */
+    private static final Exception FAILURE = new TimeoutException("the failure.");
+
+    /**
+     * The exception types that do not match the failure.
+     */
+    private static final List<Class<? extends Exception>> OTHER_TYPES = Arrays.asList(
+            IllegalArgumentException.class, IllegalStateException.class, UnsupportedOperationException.class,
+            ArithmeticException.class, ArrayStoreException.class, ClassCastException.class,
+            IndexOutOfBoundsException.class, NegativeArraySizeException.class, NullPointerException.class,
+            SecurityException.class, IOException.class, CloneNotSupportedException.class,
+            InterruptedException.class, ReflectiveOperationException.class, InstantiationException.class);
+
+    /**
+     * The number of exception types.
+     */
+    @Param({"1", "4", "16"})
+    private int types;
+
+    /**
+     * The remaining number of failures in the current invocation.
+     */
+    private int remaining;
+
+    /**
+     * The retryable.
+     */
+    private Retryable retryable;
+
+    /**
+     * The function that fails once, and succeeds.
+     */
+    private RetryableProcess.NonContextualFunction<String> function;
+
+    /**
+     * Sets up the state.
+     */
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Class<? extends Exception>[] limited = new Class[types];
+        for (int i = 0; i < types - 1; i++) {
+            limited[i] = OTHER_TYPES.get(i);
+        }
+        limited[types - 1] = TimeoutException.class;
+        retryable = new Retryable().retries(1L).on(limited);
+        function = () -> {
+            if (remaining-- > 0) {
+                throw FAILURE;
+            }
+            return RESULT;
+        };
+    }
+
+    /**
+     * Benchmarks {@link Retryable#call(RetryableProcess.NonContextualFunction)}.
+     *
+     * @return the result.
+     */
+    @Benchmark
+    public String call() {
+        remaining = 1;
+        return retryable.call(function);
+    }
+
+}
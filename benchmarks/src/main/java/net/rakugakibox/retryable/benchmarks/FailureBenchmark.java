@@ -0,0 +1,105 @@
+package net.rakugakibox.retryable.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import net.rakugakibox.retryable.Retryable;
+import net.rakugakibox.retryable.RetryableProcess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark of the success after the failures.
+ * The failure is preallocated, so it measures the overhead of the retries, not of the exceptions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FailureBenchmark {
+
+    /**
+     * The result.
+     */
+    private static final String RESULT = "the result.";
+
+    /**
+     * The failure.
+     */
+    private static final Exception FAILURE = new Exception("the failure.");
+
+    /**
+     * The number of failures before the success.
+     */
+    @Param({"1", "3", "10"})
+    private int failures;
+
+    /**
+     * The remaining number of failures in the current invocation.
+     */
+    private int remaining;
+
+    /**
+     * The retryable.
+     */
+    private Retryable retryable;
+
+    /**
+     * The function that fails {@link #failures} times, and succeeds.
+     */
+    private RetryableProcess.NonContextualFunction<String> function;
+
+    /**
+     * The procedure that fails {@link #failures} times, and succeeds.
+     */
+    private RetryableProcess.NonContextualProcedure procedure;
+
+    /**
+     * Sets up the state.
+     */
+    @Setup
+    public void setUp() {
+        retryable = new Retryable().retries(failures);
+        function = () -> {
+            if (remaining-- > 0) {
+                throw FAILURE;
+            }
+            return RESULT;
+        };
+        procedure = () -> {
+            if (remaining-- > 0) {
+                throw FAILURE;
+            }
+        };
+    }
+
+    /**
+     * Benchmarks {@link Retryable#call(RetryableProcess.NonContextualFunction)}.
+     *
+     * @return the result.
+     */
+    @Benchmark
+    public String call() {
+        remaining = failures;
+        return retryable.call(function);
+    }
+
+    /**
+     * Benchmarks {@link Retryable#run(RetryableProcess.NonContextualProcedure)}.
+     */
+    @Benchmark
+    public void run() {
+        remaining = failures;
+        retryable.run(procedure);
+    }
+
+}
@@ -0,0 +1,87 @@
+package net.rakugakibox.retryable.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import net.rakugakibox.retryable.Retryable;
+import net.rakugakibox.retryable.RetryableProcess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark of the success on the first time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FirstTimeBenchmark {
+
+    /**
+     * The result.
+     */
+    private static final String RESULT = "the result.";
+
+    /**
+     * The retryable that is configured as usual.
+     */
+    private Retryable retryable;
+
+    /**
+     * The function that succeeds.
+     */
+    private RetryableProcess.NonContextualFunction<String> function;
+
+    /**
+     * The procedure that succeeds.
+     */
+    private RetryableProcess.NonContextualProcedure procedure;
+
+    /**
+     * Sets up the state.
+     */
+    @Setup
+    public void setUp() {
+        retryable = new Retryable().retries(3L).interval(0L);
+        function = () -> RESULT;
+        procedure = () -> {};
+    }
+
+    /**
+     * Benchmarks {@link Retryable#call(RetryableProcess.NonContextualFunction)}.
+     *
+     * @return the result.
+     */
+    @Benchmark
+    public String call() {
+        return retryable.call(function);
+    }
+
+    /**
+     * Benchmarks {@link Retryable#run(RetryableProcess.NonContextualProcedure)}.
+     */
+    @Benchmark
+    public void run() {
+        retryable.run(procedure);
+    }
+
+    /**
+     * Benchmarks the direct call of the function, i.e. the baseline.
+     *
+     * @return the result.
+     * @throws Exception if an exception occurs.
+     */
+    @Benchmark
+    public String baseline() throws Exception {
+        return function.call();
+    }
+
+}
@@ -0,0 +1,109 @@
+package net.rakugakibox.retryable.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.rakugakibox.retryable.RetryHandler;
+import net.rakugakibox.retryable.Retryable;
+import net.rakugakibox.retryable.RetryableProcess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark of the deep chain of the retry handlers, composed by {@link Retryable#on(RetryHandler)}.
+ * The handlers are distinct classes of lambdas, so the call sites in the chain are megamorphic.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandlerChainBenchmark {
+
+    /**
+     * The result.
+     */
+    private static final String RESULT = "the result.";
+
+    /**
+     * The failure.
+     */
+    private static final Exception FAILURE = new Exception("the failure.");
+
+    /**
+     * The number of handlers.
+     */
+    @Param({"1", "8", "32"})
+    private int handlers;
+
+    /**
+     * The remaining number of failures in the current invocation.
+     */
+    private int remaining;
+
+    /**
+     * The counter that the handlers increment, so they are not eliminated.
+     */
+    private final AtomicLong handled = new AtomicLong();
+
+    /**
+     * The retryable.
+     */
+    private Retryable retryable;
+
+    /**
+     * The function that fails once, and succeeds.
+     */
+    private RetryableProcess.NonContextualFunction<String> function;
+
+    /**
+     * Sets up the state.
+     */
+    @Setup
+    public void setUp() {
+        retryable = new Retryable().retries(1L);
+        for (int i = 0; i < handlers; i++) {
+            switch (i % 4) {
+                case 0:
+                    retryable.on(context -> handled.incrementAndGet());
+                    break;
+                case 1:
+                    retryable.on(context -> handled.addAndGet(context.times()));
+                    break;
+                case 2:
+                    retryable.on(context -> handled.lazySet(context.times()));
+                    break;
+                default:
+                    retryable.on(context -> handled.getAndIncrement());
+                    break;
+            }
+        }
+        function = () -> {
+            if (remaining-- > 0) {
+                throw FAILURE;
+            }
+            return RESULT;
+        };
+    }
+
+    /**
+     * Benchmarks {@link Retryable#call(RetryableProcess.NonContextualFunction)}.
+     *
+     * @return the result.
+     */
+    @Benchmark
+    public String call() {
+        remaining = 1;
+        return retryable.call(function);
+    }
+
+}
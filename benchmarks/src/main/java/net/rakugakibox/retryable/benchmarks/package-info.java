@@ -0,0 +1,5 @@
+/**
+ * The JMH benchmarks of Retryable.
+ * They use only the API of the first release, so the results are comparable across versions.
+ */
+package net.rakugakibox.retryable.benchmarks;
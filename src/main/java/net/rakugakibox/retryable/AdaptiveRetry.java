@@ -0,0 +1,199 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import static net.rakugakibox.retryable.Durations.ofNanos;
+import static net.rakugakibox.retryable.Durations.requireNonNegative;
+
+/**
+ * The adaptive retry that is shared across the retryable processes.
+ * It tracks the exponentially weighted moving averages (EWMA) of the failure rate and the latency of the times,
+ * and adjusts the number of retries and the intervals:
+ * <ul>
+ * <li>The allowed retries are {@code round(maxRetries * (1 - failureRate))},
+ * so retries stop under a sustained failure, and come back as soon as the times succeed again.
+ * They are rounded, since the EWMA only approaches 0 and 1 and never reaches them.</li>
+ * <li>The interval is {@code max(baseInterval, latency) * 2^(retries - 1) / (1 - failureRate)},
+ * up to the maximum interval, so it backs off further while most times fail.</li>
+ * </ul>
+ * <p>
+ * Attach a shared instance with {@link Retryable#adaptive(AdaptiveRetry)}.
+ * It's thread-safe and lock-free.
+ */
+@Slf4j
+public class AdaptiveRetry implements RetryHandler, RetryListener {
+
+    /**
+     * The maximum failure rate that scales the interval, to bound the scale to 10 times.
+     */
+    private static final double MAX_SCALED_FAILURE_RATE = 0.9;
+
+    /**
+     * The maximum number of retries.
+     */
+    private final long maxRetries;
+
+    /**
+     * The base interval in nanoseconds.
+     */
+    private final double baseIntervalNanos;
+
+    /**
+     * The maximum interval in nanoseconds.
+     */
+    private final double maxIntervalNanos;
+
+    /**
+     * The weight of a new sample.
+     */
+    private final double alpha;
+
+    /**
+     * The EWMA of the failure rate, in the bits of a double.
+     */
+    private final AtomicLong failureRate = new AtomicLong(Double.doubleToRawLongBits(0.0));
+
+    /**
+     * The EWMA of the latency in nanoseconds, in the bits of a double.
+     */
+    private final AtomicLong latency = new AtomicLong(Double.doubleToRawLongBits(0.0));
+
+    /**
+     * Constructs an instance.
+     * The weight of a new sample is 0.1, i.e. the averages follow roughly the last 10 times.
+     *
+     * @param maxRetries the maximum number of retries, while no times fail.
+     * @param baseInterval the base interval.
+     * @param maxInterval the maximum interval.
+     */
+    public AdaptiveRetry(long maxRetries, Duration baseInterval, Duration maxInterval) {
+        this(maxRetries, baseInterval, maxInterval, 0.1);
+    }
+
+    /**
+     * Constructs an instance.
+     *
+     * @param maxRetries the maximum number of retries, while no times fail.
+     * @param baseInterval the base interval.
+     * @param maxInterval the maximum interval.
+     * @param alpha the weight of a new sample, greater than 0 and less than or equal to 1.
+     */
+    public AdaptiveRetry(long maxRetries, @NonNull Duration baseInterval, @NonNull Duration maxInterval, double alpha) {
+        if (maxRetries < 0L) {
+            throw new IllegalArgumentException("The maximum number of retries is negative.");
+        }
+        requireNonNegative(baseInterval, "The base interval is negative.");
+        requireNonNegative(maxInterval, "The maximum interval is negative.");
+        if (!(alpha > 0.0 && alpha <= 1.0)) {
+            throw new IllegalArgumentException("The weight is out of range.");
+        }
+        this.maxRetries = maxRetries;
+        this.baseIntervalNanos = baseInterval.toNanos();
+        this.maxIntervalNanos = maxInterval.toNanos();
+        this.alpha = alpha;
+    }
+
+    /**
+     * Returns the EWMA of the failure rate.
+     *
+     * @return the failure rate, from 0 to 1.
+     */
+    public double failureRate() {
+        return Double.longBitsToDouble(failureRate.get());
+    }
+
+    /**
+     * Returns the EWMA of the latency of the times.
+     *
+     * @return the latency.
+     */
+    public Duration latency() {
+        return ofNanos(Double.longBitsToDouble(latency.get()));
+    }
+
+    /**
+     * Returns the number of retries that are allowed now.
+     *
+     * @return the number of retries.
+     */
+    public long allowedRetries() {
+        return Math.round(maxRetries * (1.0 - failureRate()));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handle(RetryableContext context) throws CannotRetryException {
+        long times = context.times();
+        long allowedRetries = allowedRetries();
+        if (log.isDebugEnabled()) {
+            log.debug("Checks the adaptive retry: times={}, allowedRetries={}, retry={}", times, allowedRetries, this);
+        }
+        if (times > allowedRetries) {
+            if (log.isDebugEnabled()) {
+                log.debug("The adaptive retry limit reached: times={}, allowedRetries={}, retry={}",
+                        times, allowedRetries, this);
+            }
+            throw new CannotRetryException(
+                    "The adaptive retry limit reached", context.exception().orElse(null), context);
+        }
+        double base = Math.max(baseIntervalNanos, Double.longBitsToDouble(latency.get()));
+        double scale = 1.0 / (1.0 - Math.min(failureRate(), MAX_SCALED_FAILURE_RATE));
+        double nanos = Math.min(base * Math.pow(2.0, times - 1L) * scale, maxIntervalNanos);
+        context.interval(ofNanos(nanos));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onSuccess(RetryableContext context) {
+        record(0.0, System.nanoTime() - context.tryStartNanos());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onFailure(RetryableContext context) {
+        record(1.0, System.nanoTime() - context.tryStartNanos());
+    }
+
+    /**
+     * Records the outcome of a time.
+     *
+     * @param failure 1 if the time failed, or 0 if succeeded.
+     * @param latencyNanos the latency of the time in nanoseconds.
+     */
+    private void record(double failure, long latencyNanos) {
+        update(failureRate, failure);
+        update(latency, Math.max(latencyNanos, 0L));
+    }
+
+    /**
+     * Updates the EWMA with the sample.
+     *
+     * @param average the EWMA, in the bits of a double.
+     * @param sample the sample.
+     */
+    private void update(AtomicLong average, double sample) {
+        while (true) {
+            long bits = average.get();
+            double current = Double.longBitsToDouble(bits);
+            double next = current + alpha * (sample - current);
+            if (average.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return AdaptiveRetry.class.getSimpleName()
+                + "("
+                + "failure rate "
+                + failureRate()
+                + ", latency "
+                + latency()
+                + ")";
+    }
+
+}
@@ -0,0 +1,301 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import static net.rakugakibox.retryable.Durations.requireNonNegative;
+import static net.rakugakibox.retryable.Durations.toNanos;
+
+/**
+ * The timeout of each time.
+ * Each time runs on the executor, and is cancelled with an interruption when it times out.
+ * The timed out time fails with {@link TimeoutException}, so it's retried like the other failures.
+ * <p>
+ * A synchronous process waits for the time on the calling thread.
+ * An asynchronous process waits for no threads: the time is raced against a timer on the scheduler.
+ * <p>
+ * Each time is given a snapshot of the context, since a timed out time may keep running after the next time started.
+ * A time that ignores the interruption keeps running in the background,
+ * so the executor should have enough threads, e.g. a cached thread pool.
+ */
+@Slf4j
+final class AttemptTimeout {
+
+    /**
+     * The instance that has no timeout.
+     */
+    private static final AttemptTimeout NONE = new AttemptTimeout(-1L, null);
+
+    /**
+     * The timeout in nanoseconds, or negative if no timeout.
+     */
+    private final long timeoutNanos;
+
+    /**
+     * The executor that runs the times.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param timeoutNanos the timeout in nanoseconds, or negative if no timeout.
+     * @param executor the executor that runs the times.
+     */
+    private AttemptTimeout(long timeoutNanos, ExecutorService executor) {
+        this.timeoutNanos = timeoutNanos;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the instance that has no timeout.
+     *
+     * @return the instance that has no timeout.
+     */
+    static AttemptTimeout none() {
+        return NONE;
+    }
+
+    /**
+     * Returns an instance that has the timeout.
+     *
+     * @param timeout the timeout of each time.
+     * @param executor the executor that runs the times.
+     * @return the new instance.
+     */
+    static AttemptTimeout of(@NonNull Duration timeout, @NonNull ExecutorService executor) {
+        return new AttemptTimeout(toNanos(requireNonNegative(timeout, "The timeout is negative.")), executor);
+    }
+
+    /**
+     * Applies the timeout to the process.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @return the process that has the timeout, or the process itself if no timeout.
+     */
+    <T> RetryableProcess<T> apply(RetryableProcess<T> process) {
+        if (timeoutNanos < 0L) {
+            return process;
+        }
+        return context -> perform(process, context);
+    }
+
+    /**
+     * Returns the asynchronous process that performs each time of the process on the executor of this timeout.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @return the asynchronous process.
+     */
+    <T> RetryableStage<T> async(RetryableProcess<T> process) {
+        return submit(process, executor);
+    }
+
+    /**
+     * Applies the timeout to the asynchronous process.
+     *
+     * @param <T> the result type.
+     * @param process the retryable asynchronous process.
+     * @param scheduler the scheduler that times out the times.
+     * @return the asynchronous process that has the timeout, or the process itself if no timeout.
+     */
+    <T> RetryableStage<T> apply(RetryableStage<T> process, ScheduledExecutorService scheduler) {
+        if (timeoutNanos < 0L) {
+            return process;
+        }
+        return context -> race(process, context, scheduler);
+    }
+
+    /**
+     * Returns the asynchronous process that performs each time of the process on the executor.
+     * Cancelling the stage of a time cancels the time with an interruption.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @param executor the executor that runs the times.
+     * @return the asynchronous process.
+     */
+    static <T> RetryableStage<T> submit(RetryableProcess<T> process, ExecutorService executor) {
+        return context -> {
+            RetryableContext snapshot = context.snapshot();
+            Task<T> task = new Task<>();
+            task.submitted(executor.submit(() -> {
+                try {
+                    task.complete(process.perform(snapshot));
+                } catch (Throwable exc) {
+                    task.completeExceptionally(exc);
+                }
+            }));
+            return task;
+        };
+    }
+
+    /**
+     * Performs a time of the asynchronous process, and races it against the timeout on the scheduler.
+     *
+     * @param <T> the result type.
+     * @param process the retryable asynchronous process.
+     * @param context the context.
+     * @param scheduler the scheduler that times out the time.
+     * @return the stage of the time, that fails with {@link TimeoutException} when it times out.
+     * @throws Exception if the time failed to start.
+     */
+    private <T> CompletionStage<T> race(
+            RetryableStage<T> process, RetryableContext context, ScheduledExecutorService scheduler)
+            throws Exception {
+        CompletionStage<T> stage = process.perform(context.snapshot());
+        if (stage == null) {
+            throw new IllegalStateException("The stage is null.");
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<TimeoutException> timedOut = new AtomicReference<>();
+        ScheduledFuture<?> timer = scheduler.schedule(() -> {
+            if (!result.isDone() && timedOut.compareAndSet(
+                    null, new TimeoutException("The time timed out: " + Duration.ofNanos(timeoutNanos)))) {
+                if (log.isDebugEnabled()) {
+                    log.debug("The time timed out. Cancels it: timeout={}ns, context={}", timeoutNanos, context);
+                }
+                cancel(stage);
+                result.completeExceptionally(timedOut.get());
+            }
+        }, timeoutNanos, NANOSECONDS);
+        stage.whenComplete((value, exception) -> {
+            timer.cancel(false);
+            if (exception == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(timedOut.get() != null ? timedOut.get() : unwrap(exception));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Performs a time of the process on the executor, and waits it until the timeout.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @param context the context.
+     * @return the result.
+     * @throws Exception if the time failed or timed out.
+     */
+    private <T> T perform(RetryableProcess<T> process, RetryableContext context) throws Exception {
+        RetryableContext snapshot = context.snapshot();
+        Future<T> future = executor.submit(() -> process.perform(snapshot));
+        try {
+            return future.get(timeoutNanos, NANOSECONDS);
+        } catch (TimeoutException exc) {
+            if (log.isDebugEnabled()) {
+                log.debug("The time timed out. Cancels it: timeout={}ns, context={}", timeoutNanos, context);
+            }
+            future.cancel(true);
+            throw new TimeoutException("The time timed out: " + Duration.ofNanos(timeoutNanos));
+        } catch (InterruptedException exc) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw exc;
+        } catch (ExecutionException exc) {
+            throw cause(exc);
+        }
+    }
+
+    /**
+     * Returns the exception that a time on an executor threw.
+     *
+     * @param exception the exception of the executor.
+     * @return the exception that the time threw, or the exception of the executor if unknown.
+     * @throws Error if the time threw an error.
+     */
+    static Exception cause(ExecutionException exception) throws Error {
+        Throwable cause = exception.getCause();
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return exception;
+    }
+
+    /**
+     * Returns the exception that an asynchronous time completed with.
+     *
+     * @param exception the exception of the stage.
+     * @return the exception that the time threw.
+     */
+    static Throwable unwrap(Throwable exception) {
+        return exception instanceof CompletionException && exception.getCause() != null
+                ? exception.getCause() : exception;
+    }
+
+    /**
+     * Cancels the stage of a time with an interruption, if it's cancellable.
+     *
+     * @param stage the stage of the time.
+     */
+    static void cancel(CompletionStage<?> stage) {
+        if (stage instanceof Future) {
+            ((Future<?>) stage).cancel(true);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return AttemptTimeout.class.getSimpleName()
+                + "("
+                + (timeoutNanos < 0L ? "none" : Duration.ofNanos(timeoutNanos))
+                + ")";
+    }
+
+    /**
+     * The stage of a time that runs on an executor.
+     * Cancelling it cancels the time with an interruption.
+     *
+     * @param <T> the result type.
+     */
+    private static final class Task<T> extends CompletableFuture<T> {
+
+        /**
+         * The future of the time on the executor, or {@code null} if not submitted yet.
+         */
+        private volatile Future<?> future;
+
+        /**
+         * Sets the future of the time on the executor.
+         *
+         * @param future the future of the time.
+         */
+        private void submitted(Future<?> future) {
+            this.future = future;
+            if (isCancelled()) {
+                future.cancel(true);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> future = this.future;
+            if (cancelled && future != null) {
+                future.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+
+    }
+
+}
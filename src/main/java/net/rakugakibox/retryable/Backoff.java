@@ -0,0 +1,144 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import lombok.NonNull;
+import static net.rakugakibox.retryable.Durations.ofNanos;
+import static net.rakugakibox.retryable.Durations.requireNonNegative;
+
+/**
+ * The strategy that computes the interval before the next time.
+ */
+@FunctionalInterface
+public interface Backoff {
+
+    /**
+     * Computes the interval before the next time.
+     *
+     * @param context the context.
+     * @return the interval.
+     */
+    Duration interval(RetryableContext context);
+
+    /**
+     * Limits the interval.
+     *
+     * @param max the maximum interval.
+     * @return the limited strategy.
+     */
+    default Backoff max(@NonNull Duration max) {
+        requireNonNegative(max, "The maximum interval is negative.");
+        return context -> {
+            Duration interval = interval(context);
+            return interval.compareTo(max) > 0 ? max : interval;
+        };
+    }
+
+    /**
+     * Prefers the interval that the failing exception suggests, e.g. a retry-after value of a rate-limit response.
+     * The suggested interval is bounded by the minimum and the maximum,
+     * and this strategy is used if the exception does not suggest.
+     *
+     * @param extractor the function that extracts the suggested interval from the last exception.
+     * @param min the minimum interval.
+     * @param max the maximum interval.
+     * @return the strategy.
+     */
+    default Backoff withRetryAfter(
+            @NonNull Function<? super Exception, Optional<Duration>> extractor,
+            @NonNull Duration min, @NonNull Duration max) {
+        requireNonNegative(min, "The minimum interval is negative.");
+        requireNonNegative(max, "The maximum interval is negative.");
+        if (min.compareTo(max) > 0) {
+            throw new IllegalArgumentException("The minimum interval is greater than the maximum interval.");
+        }
+        return context -> {
+            Optional<Duration> hint = context.exception().flatMap(extractor);
+            if (!hint.isPresent()) {
+                return interval(context);
+            }
+            Duration interval = hint.get();
+            return interval.compareTo(min) < 0 ? min : interval.compareTo(max) > 0 ? max : interval;
+        };
+    }
+
+    /**
+     * Returns a strategy that has a fixed interval.
+     *
+     * @param interval the interval.
+     * @return the strategy.
+     */
+    static Backoff fixed(@NonNull Duration interval) {
+        requireNonNegative(interval, "The interval is negative.");
+        return context -> interval;
+    }
+
+    /**
+     * Returns a strategy that doubles the interval each time.
+     * The interval is {@code initial * 2^(retries - 1)}.
+     *
+     * @param initial the initial interval.
+     * @return the strategy.
+     */
+    static Backoff exponential(@NonNull Duration initial) {
+        return exponential(initial, 2.0);
+    }
+
+    /**
+     * Returns a strategy that multiplies the interval each time.
+     * The interval is {@code initial * multiplier^(retries - 1)}.
+     *
+     * @param initial the initial interval.
+     * @param multiplier the multiplier.
+     * @return the strategy.
+     */
+    static Backoff exponential(@NonNull Duration initial, double multiplier) {
+        requireNonNegative(initial, "The initial interval is negative.");
+        if (!(multiplier >= 1.0)) {
+            throw new IllegalArgumentException("The multiplier is less than 1.");
+        }
+        double initialNanos = initial.toNanos();
+        return context -> {
+            long retries = Math.max(context.times() - 1L, 0L);
+            return ofNanos(initialNanos * Math.pow(multiplier, retries));
+        };
+    }
+
+    /**
+     * Returns a strategy that randomizes the exponential interval between zero and it ("full jitter").
+     * The interval is {@code random(0, min(max, initial * 2^(retries - 1)))}.
+     *
+     * @param initial the initial interval.
+     * @param max the maximum interval.
+     * @return the strategy.
+     */
+    static Backoff fullJitter(@NonNull Duration initial, @NonNull Duration max) {
+        Backoff exponential = exponential(initial).max(max);
+        return context -> {
+            double upperNanos = exponential.interval(context).toNanos();
+            return ofNanos(ThreadLocalRandom.current().nextDouble() * upperNanos);
+        };
+    }
+
+    /**
+     * Returns a strategy that randomizes the interval based on the previous interval ("decorrelated jitter").
+     * The interval is {@code min(max, random(initial, previous * 3))}.
+     *
+     * @param initial the initial interval.
+     * @param max the maximum interval.
+     * @return the strategy.
+     */
+    static Backoff decorrelatedJitter(@NonNull Duration initial, @NonNull Duration max) {
+        requireNonNegative(initial, "The initial interval is negative.");
+        requireNonNegative(max, "The maximum interval is negative.");
+        double initialNanos = initial.toNanos();
+        Backoff decorrelated = context -> {
+            double upperNanos = Math.max(context.previousInterval().toNanos() * 3.0, initialNanos);
+            return ofNanos(initialNanos + ThreadLocalRandom.current().nextDouble() * (upperNanos - initialNanos));
+        };
+        return decorrelated.max(max);
+    }
+
+}
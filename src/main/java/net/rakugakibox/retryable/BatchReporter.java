@@ -0,0 +1,84 @@
+package net.rakugakibox.retryable;
+
+import lombok.NonNull;
+
+/**
+ * The reporter that a batch process reports the outcome of each input to.
+ * Reporting an input that is not of the batch is a bug of the process, not a failure:
+ * it ends the batch with {@link IllegalArgumentException} without retrying.
+ * <p>
+ * The outcomes can be reported from multiple threads.
+ *
+ * @param <I> the input type.
+ * @param <O> the output type.
+ */
+public final class BatchReporter<I, O> {
+
+    /**
+     * The result of the batch.
+     */
+    private final BatchResult<I, O> result;
+
+    /**
+     * The exception of the first misreported input, or {@code null} if none.
+     */
+    private volatile IllegalArgumentException misreported;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param result the result of the batch.
+     */
+    BatchReporter(BatchResult<I, O> result) {
+        this.result = result;
+    }
+
+    /**
+     * Reports that the input succeeded.
+     *
+     * @param input the input.
+     * @param output the output.
+     */
+    public void succeed(I input, O output) {
+        result.succeed(requireInput(input), output);
+    }
+
+    /**
+     * Reports that the input failed.
+     * It's ignored if the input has succeeded.
+     *
+     * @param input the input.
+     * @param exception the exception.
+     */
+    public void fail(I input, @NonNull Exception exception) {
+        result.fail(requireInput(input), exception);
+    }
+
+    /**
+     * Checks that the input is of the batch.
+     *
+     * @param input the input.
+     * @return the input.
+     */
+    private I requireInput(I input) {
+        if (!result.contains(input)) {
+            IllegalArgumentException exception =
+                    new IllegalArgumentException("The input is not of the batch: " + input);
+            if (misreported == null) {
+                misreported = exception;
+            }
+            throw exception;
+        }
+        return input;
+    }
+
+    /**
+     * Returns the exception of the first misreported input.
+     *
+     * @return the exception, or {@code null} if no input was misreported.
+     */
+    IllegalArgumentException misreported() {
+        return misreported;
+    }
+
+}
@@ -0,0 +1,219 @@
+package net.rakugakibox.retryable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import static java.util.Collections.unmodifiableMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import lombok.NonNull;
+
+/**
+ * The result of a batch, that has the output or the exception of each input.
+ * The inputs are distinguished by their equality, and keep the given order.
+ * The outcomes are reported by the process to {@link BatchReporter}.
+ *
+ * @param <I> the input type.
+ * @param <O> the output type.
+ */
+public class BatchResult<I, O> {
+
+    /**
+     * The inputs.
+     */
+    private final Set<I> inputs;
+
+    /**
+     * The outputs of the succeeded inputs.
+     */
+    private final Map<I, O> outputs = new LinkedHashMap<>();
+
+    /**
+     * The exceptions of the failed inputs.
+     */
+    private final Map<I, Exception> exceptions = new LinkedHashMap<>();
+
+    /**
+     * The exception if cannot retry the failed inputs.
+     */
+    private CannotRetryException cannotRetryException;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param inputs the inputs.
+     */
+    BatchResult(Collection<I> inputs) {
+        this.inputs = new LinkedHashSet<>(inputs);
+    }
+
+    /**
+     * Reports that the input succeeded.
+     *
+     * @param input the input.
+     * @param output the output.
+     */
+    synchronized void succeed(I input, O output) {
+        exceptions.remove(input);
+        outputs.put(input, output);
+    }
+
+    /**
+     * Reports that the input failed.
+     * It's ignored if the input has succeeded.
+     *
+     * @param input the input.
+     * @param exception the exception.
+     */
+    synchronized void fail(I input, @NonNull Exception exception) {
+        if (!outputs.containsKey(input)) {
+            exceptions.put(input, exception);
+        }
+    }
+
+    /**
+     * Returns whether the input is of this batch.
+     *
+     * @param input the input.
+     * @return {@code true} if the input is of this batch.
+     */
+    boolean contains(I input) {
+        return inputs.contains(input);
+    }
+
+    /**
+     * Returns the outputs of the succeeded inputs.
+     *
+     * @return the unmodifiable snapshot in the order of the inputs.
+     */
+    public synchronized Map<I, O> outputs() {
+        Map<I, O> snapshot = new LinkedHashMap<>();
+        inputs.stream().filter(outputs::containsKey).forEach(input -> snapshot.put(input, outputs.get(input)));
+        return unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Returns the exceptions of the failed inputs.
+     *
+     * @return the unmodifiable snapshot in the order of the inputs.
+     */
+    public synchronized Map<I, Exception> exceptions() {
+        Map<I, Exception> snapshot = new LinkedHashMap<>();
+        inputs.stream().filter(exceptions::containsKey).forEach(input -> snapshot.put(input, exceptions.get(input)));
+        return unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Returns the output of the input.
+     *
+     * @param input the input.
+     * @return the output, or empty if the input has not succeeded or the output is {@code null}.
+     */
+    public synchronized Optional<O> output(I input) {
+        return Optional.ofNullable(outputs.get(input));
+    }
+
+    /**
+     * Returns the exception of the input.
+     *
+     * @param input the input.
+     * @return the exception, or empty if the input has not failed.
+     */
+    public synchronized Optional<Exception> exception(I input) {
+        return Optional.ofNullable(exceptions.get(input));
+    }
+
+    /**
+     * Returns whether all inputs succeeded.
+     *
+     * @return {@code true} if all inputs succeeded.
+     */
+    public synchronized boolean succeeded() {
+        return outputs.size() == inputs.size();
+    }
+
+    /**
+     * Returns the exception if cannot retry the failed inputs.
+     *
+     * @return the exception, or empty if all inputs succeeded.
+     */
+    public synchronized Optional<CannotRetryException> cannotRetryException() {
+        return Optional.ofNullable(cannotRetryException);
+    }
+
+    /**
+     * Sets the exception if cannot retry the failed inputs.
+     *
+     * @param exception the exception.
+     */
+    synchronized void cannotRetry(CannotRetryException exception) {
+        this.cannotRetryException = exception;
+    }
+
+    /**
+     * Returns the inputs that have not succeeded yet.
+     *
+     * @return the inputs that have not succeeded yet.
+     */
+    synchronized List<I> pending() {
+        List<I> pending = new ArrayList<>();
+        inputs.stream().filter(input -> !outputs.containsKey(input)).forEach(pending::add);
+        return pending;
+    }
+
+    /**
+     * Completes a time: the pending inputs that are not reported fail with the exception.
+     * The exception is created only if an input is not reported.
+     *
+     * @param pending the inputs that were pending on the time.
+     * @param exception the supplier of the exception of the unreported inputs.
+     * @return the first exception of the time, or {@code null} if all inputs succeeded.
+     */
+    synchronized Exception complete(List<I> pending, Supplier<? extends Exception> exception) {
+        Exception first = null;
+        Exception unreported = null;
+        for (I input : pending) {
+            if (outputs.containsKey(input)) {
+                continue;
+            }
+            if (!exceptions.containsKey(input)) {
+                if (unreported == null) {
+                    unreported = exception.get();
+                }
+                exceptions.put(input, unreported);
+            }
+            if (first == null) {
+                first = exceptions.get(input);
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Clears the exceptions of the inputs before a time.
+     *
+     * @param pending the inputs that are pending on the time.
+     */
+    synchronized void clear(List<I> pending) {
+        pending.forEach(exceptions::remove);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized String toString() {
+        return BatchResult.class.getSimpleName()
+                + "("
+                + inputs.size()
+                + " inputs, "
+                + outputs.size()
+                + " succeeded, "
+                + exceptions.size()
+                + " failed"
+                + ")";
+    }
+
+}
@@ -0,0 +1,167 @@
+package net.rakugakibox.retryable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The bulkhead that is shared across the retryable processes.
+ * It bounds the concurrent first times and the concurrent retries separately,
+ * so retries under a failure cannot exhaust the threads that serve the first times.
+ * <ul>
+ * <li>A first time takes a permit before it's performed, and releases it when it completes.</li>
+ * <li>A retry takes a permit before waiting for the interval, and releases it when the retried time completes,
+ * so the processes that wait for the intervals are bounded too.</li>
+ * </ul>
+ * A permit is never waited for: when no permits are available,
+ * the process fails fast with {@link CannotRetryException}.
+ * The held permits are tracked by the bulkhead itself, so a process can be bounded by several bulkheads.
+ * <p>
+ * Attach a shared instance with {@link Retryable#bulkhead(Bulkhead)}.
+ * It's thread-safe.
+ */
+@Slf4j
+public class Bulkhead implements RetryHandler, RetryListener {
+
+    /**
+     * The permits of the first times.
+     */
+    private final Semaphore firstTimes;
+
+    /**
+     * The permits of the retries.
+     */
+    private final Semaphore retries;
+
+    /**
+     * The permits held by the contexts.
+     */
+    private final Map<RetryableContext, Semaphore> held = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an instance.
+     *
+     * @param maxFirstTimes the maximum number of concurrent first times, at least 1.
+     * @param maxRetries the maximum number of concurrent retries, including the ones waiting for the intervals.
+     */
+    public Bulkhead(int maxFirstTimes, int maxRetries) {
+        if (maxFirstTimes < 1) {
+            throw new IllegalArgumentException("The maximum number of concurrent first times is less than 1.");
+        }
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("The maximum number of concurrent retries is negative.");
+        }
+        this.firstTimes = new Semaphore(maxFirstTimes);
+        this.retries = new Semaphore(maxRetries);
+    }
+
+    /**
+     * Returns the number of available permits of the first times.
+     *
+     * @return the number of available permits.
+     */
+    public int availableFirstTimes() {
+        return firstTimes.availablePermits();
+    }
+
+    /**
+     * Returns the number of available permits of the retries.
+     *
+     * @return the number of available permits.
+     */
+    public int availableRetries() {
+        return retries.availablePermits();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void beforeTry(RetryableContext context) throws CannotRetryException {
+        if (context.times() == 1L && !acquire(firstTimes, context)) {
+            if (log.isDebugEnabled()) {
+                log.debug("The bulkhead of the first times is full: bulkhead={}, context={}", this, context);
+            }
+            throw new CannotRetryException("The bulkhead of the first times is full", null, context);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handle(RetryableContext context) throws CannotRetryException {
+        if (log.isDebugEnabled()) {
+            log.debug("Checks the bulkhead: bulkhead={}, context={}", this, context);
+        }
+        if (!acquire(retries, context)) {
+            if (log.isDebugEnabled()) {
+                log.debug("The bulkhead of the retries is full: bulkhead={}, context={}", this, context);
+            }
+            throw new CannotRetryException(
+                    "The bulkhead of the retries is full", context.exception().orElse(null), context);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onSuccess(RetryableContext context) {
+        release(context);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onFailure(RetryableContext context) {
+        release(context);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onCannotRetry(RetryableContext context, CannotRetryException exception) {
+        release(context);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onError(RetryableContext context, Throwable exception) {
+        release(context);
+    }
+
+    /**
+     * Takes a permit for the context if available.
+     *
+     * @param permits the permits.
+     * @param context the context.
+     * @return {@code true} if a permit was taken.
+     */
+    private boolean acquire(Semaphore permits, RetryableContext context) {
+        release(context);
+        if (!permits.tryAcquire()) {
+            return false;
+        }
+        held.put(context, permits);
+        return true;
+    }
+
+    /**
+     * Releases the permit held by the context, if any.
+     *
+     * @param context the context.
+     */
+    private void release(RetryableContext context) {
+        Semaphore permit = held.remove(context);
+        if (permit != null) {
+            permit.release();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return Bulkhead.class.getSimpleName()
+                + "("
+                + availableFirstTimes()
+                + " first times, "
+                + availableRetries()
+                + " retries available"
+                + ")";
+    }
+
+}
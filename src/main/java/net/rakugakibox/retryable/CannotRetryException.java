@@ -2,6 +2,7 @@ package net.rakugakibox.retryable;
 
 /**
  * The exception that indicates could not be retried.
+ * It doesn't capture its stack trace if disabled by {@link Retryable#stackTraces(boolean)}.
  */
 public class CannotRetryException extends RuntimeException {
 
@@ -23,7 +24,7 @@ public class CannotRetryException extends RuntimeException {
      * @param context the context.
      */
     public CannotRetryException(String message, Throwable cause, RetryableContext context) {
-        super(message, cause);
+        super(message, cause, true, context == null || context.stackTrace());
         this.context = context;
     }
 
@@ -0,0 +1,423 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The circuit breaker that is shared across the retryable processes.
+ * While the circuit is open, the times fail fast with {@link CannotRetryException}
+ * without performing the process.
+ * <p>
+ * The circuit opens when the failure rate in the sliding window reaches the threshold.
+ * After the open duration, it becomes half-open and permits some trial times:
+ * it closes if they all succeed, and opens again if one of them fails.
+ * Only the trial times count in the half-open state: a time that started before is ignored when it completes.
+ * A trial time that is not performed, e.g. rejected by a subsequent listener, returns its permit,
+ * and a trial time that ends with an error fails.
+ * If the trials have not completed within the open duration, e.g. a trial was lost, it opens again.
+ * <p>
+ * Attach a shared instance with {@link Retryable#listener(RetryListener)}.
+ * It's thread-safe, and counts the times with striped counters.
+ */
+@Slf4j
+public class CircuitBreaker implements RetryListener {
+
+    /**
+     * The state of the circuit.
+     */
+    public enum State {
+
+        /**
+         * The circuit is closed. The times are performed.
+         */
+        CLOSED,
+
+        /**
+         * The circuit is open. The times fail fast.
+         */
+        OPEN,
+
+        /**
+         * The circuit is half-open. Some trial times are performed.
+         */
+        HALF_OPEN,
+
+    }
+
+    /**
+     * The number of buckets in the sliding window.
+     */
+    private static final int BUCKETS = 10;
+
+    /**
+     * The failure rate threshold.
+     */
+    private final double failureRateThreshold;
+
+    /**
+     * The minimum number of times in the sliding window to compute the failure rate.
+     */
+    private final long minimumTimes;
+
+    /**
+     * The nanoseconds of a bucket.
+     */
+    private final long bucketNanos;
+
+    /**
+     * The nanoseconds that the circuit stays open.
+     */
+    private final long openNanos;
+
+    /**
+     * The number of trial times in the half-open state.
+     */
+    private final int halfOpenTrials;
+
+    /**
+     * The source of the current time in nanoseconds.
+     */
+    private final LongSupplier ticker;
+
+    /**
+     * The buckets of the sliding window.
+     */
+    private final Bucket[] buckets = new Bucket[BUCKETS];
+
+    /**
+     * The current status.
+     */
+    private final AtomicReference<Status> status;
+
+    /**
+     * The half-open statuses whose trial permits are held, by the contexts that hold them.
+     */
+    private final Map<RetryableContext, Status> trials = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an instance.
+     * The sliding window is 10 seconds, at least 10 times are needed to open the circuit,
+     * and a trial time is permitted in the half-open state.
+     *
+     * @param failureRateThreshold the failure rate threshold, greater than 0 and less than or equal to 1.
+     * @param openDuration the duration that the circuit stays open.
+     */
+    public CircuitBreaker(double failureRateThreshold, Duration openDuration) {
+        this(failureRateThreshold, 10L, Duration.ofSeconds(10L), openDuration, 1);
+    }
+
+    /**
+     * Constructs an instance.
+     *
+     * @param failureRateThreshold the failure rate threshold, greater than 0 and less than or equal to 1.
+     * @param minimumTimes the minimum number of times in the sliding window to compute the failure rate.
+     * @param window the duration of the sliding window.
+     * @param openDuration the duration that the circuit stays open.
+     * @param halfOpenTrials the number of trial times in the half-open state.
+     */
+    public CircuitBreaker(
+            double failureRateThreshold, long minimumTimes,
+            Duration window, Duration openDuration, int halfOpenTrials) {
+        this(failureRateThreshold, minimumTimes, window, openDuration, halfOpenTrials, System::nanoTime);
+    }
+
+    /**
+     * Constructs an instance.
+     *
+     * @param failureRateThreshold the failure rate threshold, greater than 0 and less than or equal to 1.
+     * @param minimumTimes the minimum number of times in the sliding window to compute the failure rate.
+     * @param window the duration of the sliding window.
+     * @param openDuration the duration that the circuit stays open.
+     * @param halfOpenTrials the number of trial times in the half-open state.
+     * @param ticker the source of the current time in nanoseconds.
+     */
+    CircuitBreaker(
+            double failureRateThreshold, long minimumTimes,
+            @NonNull Duration window, @NonNull Duration openDuration, int halfOpenTrials,
+            @NonNull LongSupplier ticker) {
+        if (!(failureRateThreshold > 0.0 && failureRateThreshold <= 1.0)) {
+            throw new IllegalArgumentException("The failure rate threshold is out of range.");
+        }
+        if (minimumTimes < 1L) {
+            throw new IllegalArgumentException("The minimum number of times is less than 1.");
+        }
+        if (window.toNanos() < BUCKETS) {
+            throw new IllegalArgumentException("The window is too short.");
+        }
+        if (openDuration.isNegative()) {
+            throw new IllegalArgumentException("The open duration is negative.");
+        }
+        if (halfOpenTrials < 1) {
+            throw new IllegalArgumentException("The number of trial times is less than 1.");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumTimes = minimumTimes;
+        this.bucketNanos = window.toNanos() / BUCKETS;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenTrials = halfOpenTrials;
+        this.ticker = ticker;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.status = new AtomicReference<>(new Status(State.CLOSED, ticker.getAsLong(), 0));
+    }
+
+    /**
+     * Returns the state of the circuit.
+     *
+     * @return the state of the circuit.
+     */
+    public State state() {
+        return status.get().state;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void beforeTry(RetryableContext context) throws CannotRetryException {
+        while (true) {
+            Status current = status.get();
+            switch (current.state) {
+                case CLOSED:
+                    return;
+                case OPEN:
+                    long now = ticker.getAsLong();
+                    if (now - current.since < openNanos) {
+                        if (log.isDebugEnabled()) {
+                            log.debug("The circuit breaker is open: breaker={}, context={}", this, context);
+                        }
+                        throw new CannotRetryException(
+                                "The circuit breaker is open", context.exception().orElse(null), context);
+                    }
+                    transit(current, new Status(State.HALF_OPEN, now, halfOpenTrials));
+                    break;
+                case HALF_OPEN:
+                    if (current.permits.get() > 0 && current.permits.getAndDecrement() > 0) {
+                        trials.put(context, current);
+                        return;
+                    }
+                    long halfOpenNow = ticker.getAsLong();
+                    if (halfOpenNow - current.since >= openNanos) {
+                        transit(current, new Status(State.OPEN, halfOpenNow, 0));
+                        break;
+                    }
+                    if (log.isDebugEnabled()) {
+                        log.debug("The circuit breaker is half-open: breaker={}, context={}", this, context);
+                    }
+                    throw new CannotRetryException(
+                            "The circuit breaker is half-open", context.exception().orElse(null), context);
+                default:
+                    throw new IllegalStateException("Unknown state: " + current.state);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onSuccess(RetryableContext context) {
+        Status trial = trial(context);
+        Status current = status.get();
+        if (current.state == State.HALF_OPEN) {
+            if (trial == current
+                    && current.successes.incrementAndGet() >= halfOpenTrials
+                    && transit(current, new Status(State.CLOSED, ticker.getAsLong(), 0))) {
+                for (Bucket bucket : buckets) {
+                    bucket.reset(Long.MIN_VALUE);
+                }
+            }
+        } else if (current.state == State.CLOSED) {
+            bucket(ticker.getAsLong()).successes.increment();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onFailure(RetryableContext context) {
+        Status trial = trial(context);
+        Status current = status.get();
+        if (current.state == State.HALF_OPEN) {
+            if (trial == current) {
+                transit(current, new Status(State.OPEN, ticker.getAsLong(), 0));
+            }
+        } else if (current.state == State.CLOSED) {
+            long now = ticker.getAsLong();
+            bucket(now).failures.increment();
+            if (exceedsThreshold(now)) {
+                transit(current, new Status(State.OPEN, now, 0));
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onCannotRetry(RetryableContext context, CannotRetryException exception) {
+        Status trial = trial(context);
+        if (trial != null) {
+            trial.permits.incrementAndGet();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onError(RetryableContext context, Throwable exception) {
+        Status trial = trial(context);
+        if (trial != null) {
+            transit(trial, new Status(State.OPEN, ticker.getAsLong(), 0));
+        }
+    }
+
+    /**
+     * Takes the trial that the context holds.
+     *
+     * @param context the context.
+     * @return the half-open status of the trial, or {@code null} if the context holds no trials.
+     */
+    private Status trial(RetryableContext context) {
+        return trials.isEmpty() ? null : trials.remove(context);
+    }
+
+    /**
+     * Transits the status.
+     *
+     * @param current the current status.
+     * @param next the next status.
+     * @return {@code true} if transited.
+     */
+    private boolean transit(Status current, Status next) {
+        if (!status.compareAndSet(current, next)) {
+            return false;
+        }
+        log.debug("The circuit breaker transited: from={}, to={}", current.state, next.state);
+        return true;
+    }
+
+    /**
+     * Returns the current bucket of the sliding window.
+     *
+     * @param now the current time in nanoseconds.
+     * @return the current bucket.
+     */
+    private Bucket bucket(long now) {
+        long epoch = Math.floorDiv(now, bucketNanos);
+        Bucket bucket = buckets[(int) Math.floorMod(epoch, (long) BUCKETS)];
+        long bucketEpoch = bucket.epoch.get();
+        if (bucketEpoch != epoch && bucket.epoch.compareAndSet(bucketEpoch, epoch)) {
+            bucket.reset(epoch);
+        }
+        return bucket;
+    }
+
+    /**
+     * Returns whether the failure rate in the sliding window reaches the threshold.
+     *
+     * @param now the current time in nanoseconds.
+     * @return {@code true} if the failure rate reaches the threshold.
+     */
+    private boolean exceedsThreshold(long now) {
+        long epoch = Math.floorDiv(now, bucketNanos);
+        long successes = 0L;
+        long failures = 0L;
+        for (Bucket bucket : buckets) {
+            long bucketEpoch = bucket.epoch.get();
+            if (bucketEpoch <= epoch && bucketEpoch > epoch - BUCKETS) {
+                successes += bucket.successes.sum();
+                failures += bucket.failures.sum();
+            }
+        }
+        long times = successes + failures;
+        return times >= minimumTimes && failures >= failureRateThreshold * times;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return CircuitBreaker.class.getSimpleName()
+                + "("
+                + state()
+                + ")";
+    }
+
+    /**
+     * The bucket of the sliding window.
+     * The counters are striped, and a bucket is reused when the window slides.
+     */
+    private static class Bucket {
+
+        /**
+         * The epoch of the bucket, i.e. the current time divided by the nanoseconds of a bucket.
+         */
+        private final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE);
+
+        /**
+         * The number of succeeded times.
+         */
+        private final LongAdder successes = new LongAdder();
+
+        /**
+         * The number of failed times.
+         */
+        private final LongAdder failures = new LongAdder();
+
+        /**
+         * Resets the counters.
+         * The counts that are added concurrently with it may be lost, which is tolerated for the statistics.
+         *
+         * @param epoch the new epoch.
+         */
+        private void reset(long epoch) {
+            this.epoch.set(epoch);
+            successes.reset();
+            failures.reset();
+        }
+
+    }
+
+    /**
+     * The status of the circuit.
+     * It's replaced as a whole on a transition, so the half-open counters start from scratch.
+     */
+    private static class Status {
+
+        /**
+         * The state.
+         */
+        private final State state;
+
+        /**
+         * The time of the transition in nanoseconds.
+         */
+        private final long since;
+
+        /**
+         * The remaining permits of the trial times.
+         */
+        private final AtomicInteger permits;
+
+        /**
+         * The number of succeeded trial times.
+         */
+        private final AtomicInteger successes = new AtomicInteger();
+
+        /**
+         * Constructs an instance.
+         *
+         * @param state the state.
+         * @param since the time of the transition in nanoseconds.
+         * @param permits the permits of the trial times.
+         */
+        private Status(State state, long since, int permits) {
+            this.state = state;
+            this.since = since;
+            this.permits = new AtomicInteger(permits);
+        }
+
+    }
+
+}
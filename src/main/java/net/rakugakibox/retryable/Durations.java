@@ -0,0 +1,51 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+
+/**
+ * The utilities of {@link Duration}.
+ */
+final class Durations {
+
+    /**
+     * Constructs an instance.
+     */
+    private Durations() {
+    }
+
+    /**
+     * Converts the nanoseconds to a duration, saturating at the maximum.
+     *
+     * @param nanos the nanoseconds.
+     * @return the duration.
+     */
+    static Duration ofNanos(double nanos) {
+        return nanos >= Long.MAX_VALUE ? Duration.ofNanos(Long.MAX_VALUE) : Duration.ofNanos((long) nanos);
+    }
+
+    /**
+     * Converts the duration to nanoseconds, saturating at the maximum.
+     *
+     * @param duration the non-negative duration.
+     * @return the nanoseconds.
+     */
+    static long toNanos(Duration duration) {
+        return duration.getSeconds() >= Long.MAX_VALUE / 1_000_000_000L ? Long.MAX_VALUE : duration.toNanos();
+    }
+
+    /**
+     * Checks that the duration is not negative.
+     *
+     * @param duration the duration.
+     * @param message the message of the exception.
+     * @return the duration.
+     * @throws IllegalArgumentException if the duration is negative.
+     */
+    static Duration requireNonNegative(Duration duration, String message) throws IllegalArgumentException {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException(message);
+        }
+        return duration;
+    }
+
+}
@@ -0,0 +1,278 @@
+package net.rakugakibox.retryable;
+
+import java.util.ArrayList;
+import static java.util.Arrays.asList;
+import java.util.Collection;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import lombok.NonNull;
+
+/**
+ * The immutable classifier that decides whether an exception is retryable by its type.
+ * <p>
+ * An exception is retryable if it's an instance of an included type and not of an excluded type.
+ * {@link #all()} includes all types, so the excluded types can be subtracted from it.
+ * With {@link #withCauses()}, the first exception in the cause chain that matches a type decides.
+ * <p>
+ * Once a classifier has been reused for some lookups, e.g. in a shared {@link RetryPolicy},
+ * the decision is cached per concrete exception class, so it's O(1) without allocations after the warm-up.
+ * Until then, e.g. for a classifier built per call, the types are looped over,
+ * because installing the cache on an exception class is much slower than the loop.
+ */
+public final class ExceptionClassifier {
+
+    /**
+     * The maximum depth of the cause chain to inspect.
+     */
+    private static final int MAX_CAUSE_DEPTH = 64;
+
+    /**
+     * The number of lookups before the decisions are cached.
+     */
+    private static final int UNCACHED_LOOKUPS = 16;
+
+    /**
+     * The classifier that classifies no exceptions as retryable.
+     */
+    private static final ExceptionClassifier NONE = new ExceptionClassifier(emptyList(), emptyList(), false);
+
+    /**
+     * The classifier that classifies all exceptions as retryable.
+     */
+    private static final ExceptionClassifier ALL = NONE.andInclude(singletonList(Throwable.class));
+
+    /**
+     * The included types.
+     */
+    private final List<Class<? extends Throwable>> includes;
+
+    /**
+     * The excluded types.
+     */
+    private final List<Class<? extends Throwable>> excludes;
+
+    /**
+     * Whether to inspect the cause chain.
+     */
+    private final boolean causes;
+
+    /**
+     * The number of lookups without the cache, that may lose counts under contention.
+     */
+    private int lookups = 0;
+
+    /**
+     * The cache of the decisions per concrete exception class, or {@code null} until the warm-up ends.
+     */
+    private volatile ClassValue<Decision> decisions;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param includes the included types.
+     * @param excludes the excluded types.
+     * @param causes whether to inspect the cause chain.
+     */
+    private ExceptionClassifier(
+            List<Class<? extends Throwable>> includes, List<Class<? extends Throwable>> excludes, boolean causes) {
+        this.includes = includes;
+        this.excludes = excludes;
+        this.causes = causes;
+    }
+
+    /**
+     * Returns a classifier that classifies all exceptions as retryable.
+     *
+     * @return the classifier.
+     */
+    public static ExceptionClassifier all() {
+        return ALL;
+    }
+
+    /**
+     * Returns a classifier that classifies the exceptions of the types as retryable.
+     *
+     * @param types the retryable exception types.
+     * @return the classifier.
+     */
+    public static ExceptionClassifier include(@NonNull Collection<? extends Class<? extends Throwable>> types) {
+        return NONE.andInclude(types);
+    }
+
+    /**
+     * Returns a classifier that classifies the exceptions of the types as retryable.
+     *
+     * @param types the retryable exception types.
+     * @return the classifier.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static ExceptionClassifier include(@NonNull Class<? extends Throwable>... types) {
+        return include(asList(types));
+    }
+
+    /**
+     * Returns a classifier that the retryable exception types are added to.
+     *
+     * @param types the retryable exception types.
+     * @return the new classifier.
+     */
+    public ExceptionClassifier andInclude(@NonNull Collection<? extends Class<? extends Throwable>> types) {
+        return new ExceptionClassifier(concat(includes, types), excludes, causes);
+    }
+
+    /**
+     * Returns a classifier that the non-retryable exception types are added to.
+     * The excluded types take precedence over the included types.
+     *
+     * @param types the non-retryable exception types.
+     * @return the new classifier.
+     */
+    public ExceptionClassifier exclude(@NonNull Collection<? extends Class<? extends Throwable>> types) {
+        return new ExceptionClassifier(includes, concat(excludes, types), causes);
+    }
+
+    /**
+     * Returns a classifier that the non-retryable exception types are added to.
+     * The excluded types take precedence over the included types.
+     *
+     * @param types the non-retryable exception types.
+     * @return the new classifier.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final ExceptionClassifier exclude(@NonNull Class<? extends Throwable>... types) {
+        return exclude(asList(types));
+    }
+
+    /**
+     * Returns a classifier that inspects the cause chain.
+     * The first exception in the cause chain that matches an included or excluded type decides.
+     *
+     * @return the new classifier.
+     */
+    public ExceptionClassifier withCauses() {
+        return causes ? this : new ExceptionClassifier(includes, excludes, true);
+    }
+
+    /**
+     * Returns whether the exception is retryable.
+     *
+     * @param exception the exception.
+     * @return {@code true} if the exception is retryable.
+     */
+    public boolean retryable(@NonNull Throwable exception) {
+        Throwable current = exception;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            Decision decision = decision(current.getClass());
+            if (decision != Decision.UNMATCHED) {
+                return decision == Decision.INCLUDED;
+            }
+            if (!causes) {
+                break;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * Returns the decision of the exception class, from the cache after the warm-up.
+     *
+     * @param type the exception class.
+     * @return the decision.
+     */
+    private Decision decision(Class<?> type) {
+        ClassValue<Decision> cache = decisions;
+        if (cache != null) {
+            return cache.get(type);
+        }
+        if (++lookups > UNCACHED_LOOKUPS) {
+            decisions = new ClassValue<Decision>() {
+
+                /** {@inheritDoc} */
+                @Override
+                protected Decision computeValue(Class<?> type) {
+                    return decide(type);
+                }
+
+            };
+        }
+        return decide(type);
+    }
+
+    /**
+     * Decides the exception class.
+     *
+     * @param type the exception class.
+     * @return the decision.
+     */
+    private Decision decide(Class<?> type) {
+        for (Class<? extends Throwable> exclude : excludes) {
+            if (exclude.isAssignableFrom(type)) {
+                return Decision.EXCLUDED;
+            }
+        }
+        for (Class<? extends Throwable> include : includes) {
+            if (include.isAssignableFrom(type)) {
+                return Decision.INCLUDED;
+            }
+        }
+        return Decision.UNMATCHED;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return ExceptionClassifier.class.getSimpleName()
+                + "("
+                + "includes="
+                + includes
+                + ", excludes="
+                + excludes
+                + (causes ? ", with causes" : "")
+                + ")";
+    }
+
+    /**
+     * Concatenates the types.
+     *
+     * @param types the types.
+     * @param addedTypes the added types.
+     * @return the unmodifiable concatenated types.
+     */
+    private static List<Class<? extends Throwable>> concat(
+            List<Class<? extends Throwable>> types, Collection<? extends Class<? extends Throwable>> addedTypes) {
+        List<Class<? extends Throwable>> concatenated = new ArrayList<>(types);
+        for (Class<? extends Throwable> addedType : addedTypes) {
+            concatenated.add(requireNonNull(addedType));
+        }
+        return unmodifiableList(concatenated);
+    }
+
+    /**
+     * The decision of an exception class.
+     */
+    private enum Decision {
+
+        /**
+         * Matches an included type.
+         */
+        INCLUDED,
+
+        /**
+         * Matches an excluded type.
+         */
+        EXCLUDED,
+
+        /**
+         * Matches no types.
+         */
+        UNMATCHED,
+
+    }
+
+}
@@ -0,0 +1,233 @@
+package net.rakugakibox.retryable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The immutable retention of the exceptions in {@link RetryableContext}.
+ * A long retry loop retains an exception with its stack trace per failed time,
+ * so the retention can be bounded to the first and the last exceptions.
+ * <p>
+ * The last exception is always retained, so {@link RetryableContext#exception()} is not affected,
+ * and {@link RetryableContext#exceptionCount()} counts all exceptions regardless of the retention.
+ */
+public final class ExceptionHistory {
+
+    /**
+     * The retention of all exceptions.
+     */
+    private static final ExceptionHistory ALL = new ExceptionHistory(-1, -1, false);
+
+    /**
+     * The number of the first exceptions to retain, or negative if unbounded.
+     */
+    private final int first;
+
+    /**
+     * The number of the last exceptions to retain, or negative if unbounded.
+     */
+    private final int last;
+
+    /**
+     * Whether to attach the retained exceptions to {@link CannotRetryException} as suppressed exceptions.
+     */
+    private final boolean suppressed;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param first the number of the first exceptions to retain, or negative if unbounded.
+     * @param last the number of the last exceptions to retain, or negative if unbounded.
+     * @param suppressed whether to attach the retained exceptions to {@link CannotRetryException}.
+     */
+    private ExceptionHistory(int first, int last, boolean suppressed) {
+        this.first = first;
+        this.last = last;
+        this.suppressed = suppressed;
+    }
+
+    /**
+     * Returns the retention of all exceptions.
+     *
+     * @return the retention.
+     */
+    public static ExceptionHistory all() {
+        return ALL;
+    }
+
+    /**
+     * Returns the retention of the last exceptions.
+     * They are retained in a ring buffer, so a failure overwrites the oldest one in constant time.
+     *
+     * @param last the number of the last exceptions to retain, at least 1.
+     * @return the retention.
+     */
+    public static ExceptionHistory last(int last) {
+        return firstAndLast(0, last);
+    }
+
+    /**
+     * Returns the retention of the first and the last exceptions.
+     * The first exceptions often tell the origin of the failure, and the last ones tell the current state.
+     *
+     * @param first the number of the first exceptions to retain.
+     * @param last the number of the last exceptions to retain, at least 1.
+     * @return the retention.
+     */
+    public static ExceptionHistory firstAndLast(int first, int last) {
+        if (first < 0) {
+            throw new IllegalArgumentException("The number of the first exceptions is negative.");
+        }
+        if (last < 1) {
+            throw new IllegalArgumentException("The number of the last exceptions is less than 1.");
+        }
+        return new ExceptionHistory(first, last, false);
+    }
+
+    /**
+     * Returns the retention that only counts the exceptions, and retains only the last exception.
+     *
+     * @return the retention.
+     */
+    public static ExceptionHistory countOnly() {
+        return last(1);
+    }
+
+    /**
+     * Returns a retention that attaches the retained exceptions to {@link CannotRetryException}
+     * as suppressed exceptions, except for the cause.
+     *
+     * @return the new retention.
+     */
+    public ExceptionHistory withSuppressed() {
+        return suppressed ? this : new ExceptionHistory(first, last, true);
+    }
+
+    /**
+     * Returns whether to attach the retained exceptions to {@link CannotRetryException}.
+     *
+     * @return {@code true} if attaches the retained exceptions.
+     */
+    boolean suppressed() {
+        return suppressed;
+    }
+
+    /**
+     * Returns a new list of the retained exceptions, that discards the exceptions between the first and the last.
+     *
+     * @return the new list.
+     */
+    List<Exception> newExceptions() {
+        return first < 0 ? new ArrayList<>() : new Retained(first, last);
+    }
+
+    /**
+     * Attaches the retained exceptions to the exception as suppressed exceptions, except for the cause.
+     *
+     * @param exception the exception.
+     * @param exceptions the retained exceptions.
+     */
+    void attach(CannotRetryException exception, List<Exception> exceptions) {
+        if (!suppressed) {
+            return;
+        }
+        for (Exception retained : exceptions) {
+            if (retained != exception.getCause() && retained != exception) {
+                exception.addSuppressed(retained);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return ExceptionHistory.class.getSimpleName()
+                + "("
+                + (first < 0 ? "all" : "first " + first + ", last " + last)
+                + (suppressed ? ", with suppressed" : "")
+                + ")";
+    }
+
+    /**
+     * The list of the retained exceptions, that retains the last exceptions in a ring buffer.
+     */
+    private static final class Retained extends AbstractList<Exception> {
+
+        /**
+         * The first exceptions.
+         */
+        private final List<Exception> firsts = new ArrayList<>();
+
+        /**
+         * The number of the first exceptions to retain.
+         */
+        private final int first;
+
+        /**
+         * The ring buffer of the last exceptions, allocated when the first one is retained.
+         */
+        private Exception[] lasts;
+
+        /**
+         * The number of the last exceptions to retain.
+         */
+        private final int last;
+
+        /**
+         * The index of the oldest last exception.
+         */
+        private int oldest = 0;
+
+        /**
+         * The number of the last exceptions.
+         */
+        private int lastCount = 0;
+
+        /**
+         * Constructs an instance.
+         *
+         * @param first the number of the first exceptions to retain.
+         * @param last the number of the last exceptions to retain, at least 1.
+         */
+        private Retained(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean add(Exception exception) {
+            if (firsts.size() < first) {
+                firsts.add(exception);
+            } else if (lastCount < last) {
+                if (lasts == null) {
+                    lasts = new Exception[last];
+                }
+                lasts[(oldest + lastCount++) % last] = exception;
+            } else {
+                lasts[oldest] = exception;
+                oldest = (oldest + 1) % last;
+            }
+            modCount++;
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Exception get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return index < firsts.size() ? firsts.get(index) : lasts[(oldest + index - firsts.size()) % last];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int size() {
+            return firsts.size() + lastCount;
+        }
+
+    }
+
+}
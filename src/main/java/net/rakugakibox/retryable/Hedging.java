@@ -0,0 +1,409 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import java.util.function.LongSupplier;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import static net.rakugakibox.retryable.Durations.requireNonNegative;
+import static net.rakugakibox.retryable.Durations.toNanos;
+
+/**
+ * The hedging of each time.
+ * Each time runs on the executor, and another attempt of the same time is launched
+ * when none has completed within the delay, up to the maximum number of parallel attempts.
+ * The first successful attempt wins, and the others are cancelled with an interruption.
+ * The time fails only when all attempts failed, with the last exception.
+ * <p>
+ * A synchronous process waits for the attempts on the calling thread.
+ * An asynchronous process waits for no threads: the next attempts are scheduled on the scheduler.
+ * <p>
+ * The attempts share a snapshot of the context that cannot be modified,
+ * so the process should not depend on being the only attempt.
+ */
+@Slf4j
+final class Hedging {
+
+    /**
+     * The instance that does not hedge.
+     */
+    private static final Hedging NONE = new Hedging(() -> Long.MAX_VALUE, 1, null, "none");
+
+    /**
+     * The source of the delay in nanoseconds before launching another attempt.
+     */
+    private final LongSupplier delayNanos;
+
+    /**
+     * The maximum number of parallel attempts.
+     */
+    private final int maxParallel;
+
+    /**
+     * The executor that runs the attempts.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The description of the delay.
+     */
+    private final String description;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param delayNanos the source of the delay in nanoseconds before launching another attempt.
+     * @param maxParallel the maximum number of parallel attempts.
+     * @param executor the executor that runs the attempts.
+     * @param description the description of the delay.
+     */
+    private Hedging(LongSupplier delayNanos, int maxParallel, ExecutorService executor, String description) {
+        this.delayNanos = delayNanos;
+        this.maxParallel = maxParallel;
+        this.executor = executor;
+        this.description = description;
+    }
+
+    /**
+     * Returns the instance that does not hedge.
+     *
+     * @return the instance that does not hedge.
+     */
+    static Hedging none() {
+        return NONE;
+    }
+
+    /**
+     * Returns an instance that hedges after the fixed delay.
+     *
+     * @param delay the delay before launching another attempt.
+     * @param maxParallel the maximum number of parallel attempts, greater than 1.
+     * @param executor the executor that runs the attempts.
+     * @return the new instance.
+     */
+    static Hedging of(@NonNull Duration delay, int maxParallel, @NonNull ExecutorService executor) {
+        long nanos = toNanos(requireNonNegative(delay, "The delay is negative."));
+        return new Hedging(() -> nanos, requireParallel(maxParallel), executor, delay.toString());
+    }
+
+    /**
+     * Returns an instance that hedges after the percentile of the latencies.
+     * It does not hedge until a latency is recorded.
+     *
+     * @param latencies the latencies, e.g. {@link RetryMetrics#tryLatency()}.
+     * @param percentile the percentile, e.g. 0.95.
+     * @param maxParallel the maximum number of parallel attempts, greater than 1.
+     * @param executor the executor that runs the attempts.
+     * @return the new instance.
+     */
+    static Hedging of(
+            @NonNull LatencyHistogram latencies, double percentile,
+            int maxParallel, @NonNull ExecutorService executor) {
+        if (!(percentile >= 0.0 && percentile <= 1.0)) {
+            throw new IllegalArgumentException("The percentile is out of range.");
+        }
+        LongSupplier delayNanos = () -> latencies.count() == 0L
+                ? Long.MAX_VALUE : toNanos(latencies.percentile(percentile));
+        return new Hedging(delayNanos, requireParallel(maxParallel), executor, "p" + percentile * 100.0);
+    }
+
+    /**
+     * Checks the maximum number of parallel attempts.
+     *
+     * @param maxParallel the maximum number of parallel attempts.
+     * @return the maximum number of parallel attempts.
+     */
+    private static int requireParallel(int maxParallel) {
+        if (maxParallel < 2) {
+            throw new IllegalArgumentException("The maximum number of parallel attempts is less than 2.");
+        }
+        return maxParallel;
+    }
+
+    /**
+     * Applies the hedging to the process.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @return the process that hedges, or the process itself if it does not hedge.
+     */
+    <T> RetryableProcess<T> apply(RetryableProcess<T> process) {
+        if (maxParallel < 2) {
+            return process;
+        }
+        return context -> perform(process, context);
+    }
+
+    /**
+     * Returns the asynchronous process that performs each attempt of the process on the executor of this hedging.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @return the asynchronous process.
+     */
+    <T> RetryableStage<T> async(RetryableProcess<T> process) {
+        return AttemptTimeout.submit(process, executor);
+    }
+
+    /**
+     * Applies the hedging to the asynchronous process.
+     *
+     * @param <T> the result type.
+     * @param process the retryable asynchronous process.
+     * @param scheduler the scheduler that launches the hedged attempts.
+     * @return the asynchronous process that hedges, or the process itself if it does not hedge.
+     */
+    <T> RetryableStage<T> apply(RetryableStage<T> process, ScheduledExecutorService scheduler) {
+        if (maxParallel < 2) {
+            return process;
+        }
+        return context -> new Race<>(process, context, scheduler).start();
+    }
+
+    /**
+     * Performs a time of the process with the hedged attempts.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @param context the context.
+     * @return the result of the first successful attempt.
+     * @throws Exception if all attempts failed.
+     */
+    private <T> T perform(RetryableProcess<T> process, RetryableContext context) throws Exception {
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> attempts = new ArrayList<>(maxParallel);
+        RetryableContext snapshot = context.snapshot();
+        Exception failure = null;
+        try {
+            attempts.add(completion.submit(() -> process.perform(snapshot)));
+            long delay = delayNanos.getAsLong();
+            int running = 1;
+            while (running > 0) {
+                Future<T> done = attempts.size() < maxParallel
+                        ? completion.poll(delay, NANOSECONDS) : completion.take();
+                if (done == null) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Hedges the time: attempts={}, context={}", attempts.size() + 1, context);
+                    }
+                    attempts.add(completion.submit(() -> process.perform(snapshot)));
+                    running++;
+                    continue;
+                }
+                running--;
+                try {
+                    return done.get();
+                } catch (ExecutionException exc) {
+                    failure = AttemptTimeout.cause(exc);
+                    if (log.isDebugEnabled()) {
+                        log.debug("An attempt failed: exception={}, running={}, context={}", failure, running, context);
+                    }
+                }
+            }
+            throw failure;
+        } catch (InterruptedException exc) {
+            if (exc != failure) {
+                Thread.currentThread().interrupt();
+            }
+            throw exc;
+        } finally {
+            for (Future<T> attempt : attempts) {
+                attempt.cancel(true);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return Hedging.class.getSimpleName()
+                + "("
+                + description
+                + (maxParallel < 2 ? "" : ", " + maxParallel + " parallel")
+                + ")";
+    }
+
+    /**
+     * The race of the attempts of an asynchronous time.
+     *
+     * @param <T> the result type.
+     */
+    private final class Race<T> {
+
+        /**
+         * The retryable asynchronous process.
+         */
+        private final RetryableStage<T> process;
+
+        /**
+         * The snapshot of the context that the attempts share.
+         */
+        private final RetryableContext context;
+
+        /**
+         * The scheduler that launches the hedged attempts.
+         */
+        private final ScheduledExecutorService scheduler;
+
+        /**
+         * The result of the first successful attempt.
+         */
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        /**
+         * The stages of the launched attempts.
+         */
+        private final List<CompletionStage<T>> attempts = new ArrayList<>(maxParallel);
+
+        /**
+         * The number of the running attempts.
+         */
+        private int running = 0;
+
+        /**
+         * The next hedged attempt that is scheduled, or {@code null} if none.
+         */
+        private ScheduledFuture<?> next;
+
+        /**
+         * Constructs an instance.
+         *
+         * @param process the retryable asynchronous process.
+         * @param context the context.
+         * @param scheduler the scheduler that launches the hedged attempts.
+         */
+        private Race(RetryableStage<T> process, RetryableContext context, ScheduledExecutorService scheduler) {
+            this.process = process;
+            this.context = context.snapshot();
+            this.scheduler = scheduler;
+        }
+
+        /**
+         * Launches the first attempt.
+         *
+         * @return the stage of the result of the first successful attempt.
+         */
+        private CompletionStage<T> start() {
+            result.whenComplete((value, exception) -> cancel());
+            launch();
+            return result;
+        }
+
+        /**
+         * Launches an attempt, and schedules the next one.
+         */
+        private void launch() {
+            synchronized (this) {
+                running++;
+            }
+            CompletionStage<T> stage;
+            try {
+                stage = process.perform(context);
+                if (stage == null) {
+                    throw new IllegalStateException("The stage is null.");
+                }
+            } catch (Throwable exc) {
+                fail(exc);
+                return;
+            }
+            boolean hedges;
+            synchronized (this) {
+                attempts.add(stage);
+                hedges = attempts.size() < maxParallel;
+            }
+            if (result.isDone()) {
+                AttemptTimeout.cancel(stage);
+                return;
+            }
+            stage.whenComplete((value, exception) -> {
+                if (exception == null) {
+                    result.complete(value);
+                } else {
+                    fail(AttemptTimeout.unwrap(exception));
+                }
+            });
+            long delay = delayNanos.getAsLong();
+            if (hedges && delay != Long.MAX_VALUE && !result.isDone()) {
+                try {
+                    ScheduledFuture<?> scheduled = scheduler.schedule(this::hedge, delay, NANOSECONDS);
+                    synchronized (this) {
+                        next = scheduled;
+                    }
+                } catch (RejectedExecutionException exc) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Cannot schedule a hedged attempt: exception={}, context={}", exc, context);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Launches a hedged attempt, unless the time has completed.
+         */
+        private void hedge() {
+            if (result.isDone()) {
+                return;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Hedges the time: attempts={}, context={}", attempts() + 1, context);
+            }
+            launch();
+        }
+
+        /**
+         * Fails an attempt, and fails the time if no attempts are running.
+         *
+         * @param exception the exception of the attempt.
+         */
+        private void fail(Throwable exception) {
+            boolean last;
+            synchronized (this) {
+                last = --running == 0;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("An attempt failed: exception={}, last={}, context={}", exception, last, context);
+            }
+            if (last) {
+                result.completeExceptionally(exception);
+            }
+        }
+
+        /**
+         * Returns the number of the launched attempts.
+         *
+         * @return the number of the launched attempts.
+         */
+        private synchronized int attempts() {
+            return attempts.size();
+        }
+
+        /**
+         * Cancels the next hedged attempt and the running attempts.
+         */
+        private void cancel() {
+            List<CompletionStage<T>> launched;
+            synchronized (this) {
+                if (next != null) {
+                    next.cancel(false);
+                }
+                launched = new ArrayList<>(attempts);
+            }
+            for (CompletionStage<T> attempt : launched) {
+                AttemptTimeout.cancel(attempt);
+            }
+        }
+
+    }
+
+}
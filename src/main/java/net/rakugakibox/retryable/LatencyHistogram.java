@@ -0,0 +1,153 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The histogram of latencies.
+ * The latencies are counted in the buckets of powers of 2 nanoseconds, so a percentile is within a factor of 2.
+ * <p>
+ * It's thread-safe, and records with striped counters without locks or allocations.
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of buckets, i.e. the bit lengths of a non-negative latency in nanoseconds, from 0 to 63.
+     */
+    private static final int BUCKETS = Long.SIZE;
+
+    /**
+     * The buckets, the i-th bucket counts the latencies of i bits, i.e. from 2^(i-1) to less than 2^i nanoseconds.
+     */
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    /**
+     * The number of the latencies.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * The sum of the latencies in nanoseconds.
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * The maximum of the latencies in nanoseconds.
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Constructs an instance.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a latency.
+     * A negative latency is recorded as 0.
+     *
+     * @param nanos the latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        long latency = Math.max(nanos, 0L);
+        buckets[BUCKETS - Long.numberOfLeadingZeros(latency)].increment();
+        count.increment();
+        sum.add(latency);
+        max.accumulate(latency);
+    }
+
+    /**
+     * Returns the number of the latencies.
+     *
+     * @return the number of the latencies.
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the latencies.
+     *
+     * @return the sum of the latencies.
+     */
+    public Duration total() {
+        return Duration.ofNanos(sum.sum());
+    }
+
+    /**
+     * Returns the mean of the latencies.
+     *
+     * @return the mean of the latencies, or zero if no latencies.
+     */
+    public Duration mean() {
+        long count = count();
+        return count == 0L ? Duration.ZERO : Duration.ofNanos(sum.sum() / count);
+    }
+
+    /**
+     * Returns the maximum of the latencies.
+     *
+     * @return the maximum of the latencies, or zero if no latencies.
+     */
+    public Duration max() {
+        return Duration.ofNanos(max.get());
+    }
+
+    /**
+     * Returns the upper bound of the percentile of the latencies.
+     *
+     * @param percentile the percentile, greater than or equal to 0 and less than or equal to 1.
+     * @return the upper bound of the percentile, or zero if no latencies.
+     */
+    public Duration percentile(double percentile) {
+        if (!(percentile >= 0.0 && percentile <= 1.0)) {
+            throw new IllegalArgumentException("The percentile is out of range.");
+        }
+        long[] counts = new long[BUCKETS];
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0L) {
+            return Duration.ZERO;
+        }
+        long rank = Math.max((long) Math.ceil(percentile * total), 1L);
+        long cumulative = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return Duration.ofNanos(Math.min(upperBound(i), max.get()));
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Returns the upper bound of the bucket in nanoseconds.
+     *
+     * @param bucket the index of the bucket.
+     * @return the upper bound of the bucket in nanoseconds.
+     */
+    private static long upperBound(int bucket) {
+        return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1L;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return LatencyHistogram.class.getSimpleName()
+                + "("
+                + count()
+                + " latencies, mean "
+                + mean()
+                + ", max "
+                + max()
+                + ")";
+    }
+
+}
@@ -0,0 +1,168 @@
+package net.rakugakibox.retryable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The iterator that maps the elements in parallel, with the bounded number of running elements.
+ * The elements are pulled from the source only when a running element completes,
+ * so the memory stays bounded for a large or infinite source.
+ *
+ * @param <I> the element type.
+ * @param <O> the result type.
+ */
+@Slf4j
+final class ParallelMapping<I, O> implements Iterator<O> {
+
+    /**
+     * The source of the elements.
+     */
+    private final Iterator<I> elements;
+
+    /**
+     * The function that maps an element.
+     */
+    private final Function<I, O> function;
+
+    /**
+     * The maximum number of running elements.
+     */
+    private final int parallelism;
+
+    /**
+     * Whether the results keep the order of the elements.
+     */
+    private final boolean ordered;
+
+    /**
+     * The executor that maps the elements.
+     */
+    private final Executor executor;
+
+    /**
+     * The running elements in the order of the elements.
+     */
+    private final Deque<CompletableFuture<O>> running = new ArrayDeque<>();
+
+    /**
+     * The completed elements in the order of the completion.
+     */
+    private final BlockingQueue<CompletableFuture<O>> completed = new LinkedBlockingQueue<>();
+
+    /**
+     * Constructs an instance.
+     *
+     * @param elements the source of the elements.
+     * @param function the function that maps an element.
+     * @param parallelism the maximum number of running elements.
+     * @param ordered whether the results keep the order of the elements.
+     * @param executor the executor that maps the elements.
+     */
+    private ParallelMapping(
+            Iterator<I> elements, Function<I, O> function, int parallelism, boolean ordered, Executor executor) {
+        this.elements = elements;
+        this.function = function;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the stream of the results that the elements are mapped to in parallel.
+     *
+     * @param <I> the element type.
+     * @param <O> the result type.
+     * @param elements the source of the elements.
+     * @param function the function that maps an element.
+     * @param parallelism the maximum number of running elements.
+     * @param ordered whether the results keep the order of the elements.
+     * @param executor the executor that maps the elements.
+     * @return the sequential stream of the results.
+     */
+    static <I, O> Stream<O> stream(
+            Iterator<I> elements, Function<I, O> function, int parallelism, boolean ordered, Executor executor) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism is less than 1.");
+        }
+        ParallelMapping<I, O> mapping = new ParallelMapping<>(elements, function, parallelism, ordered, executor);
+        int characteristics = ordered ? Spliterator.ORDERED : 0;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(mapping, characteristics), false)
+                .onClose(mapping::cancel);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+        fill();
+        return !running.isEmpty();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public O next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        CompletableFuture<O> future;
+        if (ordered) {
+            future = running.poll();
+        } else {
+            try {
+                future = completed.take();
+            } catch (InterruptedException exc) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(exc);
+            }
+            running.remove(future);
+        }
+        try {
+            return future.join();
+        } catch (CompletionException exc) {
+            if (exc.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exc.getCause();
+            }
+            if (exc.getCause() instanceof Error) {
+                throw (Error) exc.getCause();
+            }
+            throw exc;
+        }
+    }
+
+    /**
+     * Starts the elements up to the parallelism.
+     */
+    private void fill() {
+        while (running.size() < parallelism && elements.hasNext()) {
+            I element = elements.next();
+            if (log.isDebugEnabled()) {
+                log.debug("Maps the element in parallel: element={}, running={}", element, running.size());
+            }
+            CompletableFuture<O> future = CompletableFuture.supplyAsync(() -> function.apply(element), executor);
+            running.add(future);
+            if (!ordered) {
+                future.whenComplete((result, exc) -> completed.add(future));
+            }
+        }
+    }
+
+    /**
+     * Cancels the running elements that have not started.
+     */
+    private void cancel() {
+        running.forEach(future -> future.cancel(false));
+    }
+
+}
@@ -0,0 +1,45 @@
+package net.rakugakibox.retryable;
+
+/**
+ * The exception that indicates a result was rejected by {@link Retryable#retryIf(java.util.function.Predicate)}.
+ * It records the failure of a time in {@link RetryableContext} like the other exceptions,
+ * but captures no stack trace, so a rejected result is cheap even on a hot failure path.
+ */
+public class RejectedResultException extends Exception {
+
+    /**
+     * The serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The rejected result.
+     */
+    private final transient Object result;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param result the rejected result.
+     */
+    RejectedResultException(Object result) {
+        super(null, null, false, false);
+        this.result = result;
+    }
+
+    /**
+     * Returns the rejected result.
+     *
+     * @return the rejected result.
+     */
+    public Object result() {
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getMessage() {
+        return "The result was rejected: " + result;
+    }
+
+}
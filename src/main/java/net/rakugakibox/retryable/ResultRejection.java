@@ -0,0 +1,88 @@
+package net.rakugakibox.retryable;
+
+import java.util.function.Predicate;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The rejection of the results of each time.
+ * A rejected result fails the time with {@link RejectedResultException}, so it's retried like the other failures,
+ * without the process throwing an exception for a status code or an empty result.
+ * The processors test the results outside the process, so the predicate is not a part of a time.
+ */
+@Slf4j
+final class ResultRejection {
+
+    /**
+     * The instance that rejects no results.
+     */
+    private static final ResultRejection NONE = new ResultRejection(null);
+
+    /**
+     * The predicate that rejects a result, or {@code null} if rejects no results.
+     */
+    private final Predicate<Object> predicate;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param predicate the predicate that rejects a result, or {@code null} if rejects no results.
+     */
+    private ResultRejection(Predicate<Object> predicate) {
+        this.predicate = predicate;
+    }
+
+    /**
+     * Returns the instance that rejects no results.
+     *
+     * @return the instance that rejects no results.
+     */
+    static ResultRejection none() {
+        return NONE;
+    }
+
+    /**
+     * Returns an instance that also rejects the results matching the predicate.
+     *
+     * @param predicate the predicate that rejects a result.
+     * @return the new instance.
+     */
+    ResultRejection or(@NonNull Predicate<Object> predicate) {
+        return new ResultRejection(this.predicate == null ? predicate : this.predicate.or(predicate));
+    }
+
+    /**
+     * Returns whether the result is rejected.
+     * An exception thrown by the predicate is not a failure of the time, and propagates to the caller.
+     *
+     * @param result the result.
+     * @return {@code true} if the result is rejected.
+     */
+    boolean rejects(Object result) {
+        return predicate != null && predicate.test(result);
+    }
+
+    /**
+     * Returns the exception that fails the time of the rejected result.
+     *
+     * @param result the rejected result.
+     * @param context the context.
+     * @return the exception.
+     */
+    static RejectedResultException reject(Object result, RetryableContext context) {
+        if (log.isDebugEnabled()) {
+            log.debug("The result was rejected: result={}, context={}", result, context);
+        }
+        return new RejectedResultException(result);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return ResultRejection.class.getSimpleName()
+                + "("
+                + (predicate == null ? "none" : predicate)
+                + ")";
+    }
+
+}
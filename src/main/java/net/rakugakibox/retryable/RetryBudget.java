@@ -0,0 +1,125 @@
+package net.rakugakibox.retryable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The retry budget that is shared across the retryable processes.
+ * It's a token bucket: each retry takes a token, and tokens are refilled over time up to the capacity.
+ * When the bucket is empty, retries fail fast with {@link CannotRetryException}.
+ * <p>
+ * Attach a shared instance with {@link Retryable#on(RetryHandler)}.
+ * It's thread-safe and lock-free.
+ */
+@Slf4j
+public class RetryBudget implements RetryHandler {
+
+    /**
+     * The nanoseconds that refills a token.
+     */
+    private final long refillNanos;
+
+    /**
+     * The nanoseconds that the bucket can be ahead of now, i.e. the capacity in nanoseconds.
+     */
+    private final long toleranceNanos;
+
+    /**
+     * The source of the current time in nanoseconds.
+     */
+    private final LongSupplier ticker;
+
+    /**
+     * The theoretical time of the next retry (GCRA).
+     * The bucket is full when it's not ahead of now, and each retry pushes it forward by {@link #refillNanos}.
+     */
+    private final AtomicLong theoreticalTime;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param capacity the maximum number of tokens, i.e. the retries allowed in a burst.
+     * @param refillPerSecond the number of tokens refilled per second.
+     */
+    public RetryBudget(long capacity, double refillPerSecond) {
+        this(capacity, refillPerSecond, System::nanoTime);
+    }
+
+    /**
+     * Constructs an instance.
+     *
+     * @param capacity the maximum number of tokens, i.e. the retries allowed in a burst.
+     * @param refillPerSecond the number of tokens refilled per second.
+     * @param ticker the source of the current time in nanoseconds.
+     */
+    RetryBudget(long capacity, double refillPerSecond, @NonNull LongSupplier ticker) {
+        if (capacity < 1L) {
+            throw new IllegalArgumentException("The capacity is less than 1.");
+        }
+        if (!(refillPerSecond > 0.0)) {
+            throw new IllegalArgumentException("The refill rate is not positive.");
+        }
+        this.refillNanos = Math.max((long) Math.min(1e9 / refillPerSecond, Long.MAX_VALUE), 1L);
+        this.toleranceNanos = (long) Math.min((double) refillNanos * (capacity - 1L), Long.MAX_VALUE / 2L);
+        this.ticker = ticker;
+        this.theoreticalTime = new AtomicLong(ticker.getAsLong());
+    }
+
+    /**
+     * Takes a token if available.
+     *
+     * @return {@code true} if a token was taken.
+     */
+    public boolean tryAcquire() {
+        long now = ticker.getAsLong();
+        while (true) {
+            long current = theoreticalTime.get();
+            long start = current - now < 0L ? now : current;
+            if (start - now > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalTime.compareAndSet(current, start + refillNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of available tokens.
+     *
+     * @return the number of available tokens.
+     */
+    public long available() {
+        long now = ticker.getAsLong();
+        long ahead = Math.max(theoreticalTime.get() - now, 0L);
+        return Math.max(Math.floorDiv(toleranceNanos - ahead, refillNanos) + 1L, 0L);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handle(RetryableContext context) throws CannotRetryException {
+        if (log.isDebugEnabled()) {
+            log.debug("Checks the retry budget: budget={}, context={}", this, context);
+        }
+        if (!tryAcquire()) {
+            if (log.isDebugEnabled()) {
+                log.debug("The retry budget was exhausted: budget={}, context={}", this, context);
+            }
+            throw new CannotRetryException(
+                    "The retry budget was exhausted", context.exception().orElse(null), context);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return RetryBudget.class.getSimpleName()
+                + "("
+                + available()
+                + " tokens available"
+                + ")";
+    }
+
+}
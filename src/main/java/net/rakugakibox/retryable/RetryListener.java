@@ -0,0 +1,117 @@
+package net.rakugakibox.retryable;
+
+import lombok.NonNull;
+
+/**
+ * The listener of the times.
+ * Unlike {@link RetryHandler}, it's notified of every time, including the first time and a success.
+ * It's the hook to instrument the processes, e.g. {@link RetryMetrics}, without enabling the debug logs.
+ */
+public interface RetryListener {
+
+    /**
+     * Called before a time of the process.
+     *
+     * @param context the context.
+     * @throws CannotRetryException if the time should not be performed.
+     */
+    default void beforeTry(RetryableContext context) throws CannotRetryException {
+    }
+
+    /**
+     * Called after a time of the process succeeded.
+     *
+     * @param context the context.
+     */
+    default void onSuccess(RetryableContext context) {
+    }
+
+    /**
+     * Called after a time of the process failed.
+     * The exception is {@link RetryableContext#exception()}.
+     *
+     * @param context the context.
+     */
+    default void onFailure(RetryableContext context) {
+    }
+
+    /**
+     * Called when cannot retry, i.e. the process ends with {@link CannotRetryException}.
+     *
+     * @param context the context.
+     * @param exception the exception.
+     */
+    default void onCannotRetry(RetryableContext context, CannotRetryException exception) {
+    }
+
+    /**
+     * Called when the process ends with a throwable other than {@link CannotRetryException},
+     * e.g. an {@link Error} thrown by the process, or a next time that could not be scheduled.
+     * With {@link #onSuccess(RetryableContext)} and {@link #onCannotRetry(RetryableContext, CannotRetryException)},
+     * one of them is always called at the end of a process, so a listener can release what it holds.
+     *
+     * @param context the context.
+     * @param exception the throwable.
+     */
+    default void onError(RetryableContext context, Throwable exception) {
+    }
+
+    /**
+     * Composes the listener.
+     *
+     * @param listener the subsequent listener.
+     * @return the composed listener.
+     */
+    default RetryListener andThen(@NonNull RetryListener listener) {
+        RetryListener self = this;
+        return new RetryListener() {
+
+            /** {@inheritDoc} */
+            @Override
+            public void beforeTry(RetryableContext context) throws CannotRetryException {
+                self.beforeTry(context);
+                listener.beforeTry(context);
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void onSuccess(RetryableContext context) {
+                self.onSuccess(context);
+                listener.onSuccess(context);
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void onFailure(RetryableContext context) {
+                self.onFailure(context);
+                listener.onFailure(context);
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void onCannotRetry(RetryableContext context, CannotRetryException exception) {
+                self.onCannotRetry(context, exception);
+                listener.onCannotRetry(context, exception);
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void onError(RetryableContext context, Throwable exception) {
+                self.onError(context, exception);
+                listener.onError(context, exception);
+            }
+
+        };
+    }
+
+    /**
+     * Returns a listener that does nothing.
+     *
+     * @return a listener that does nothing.
+     */
+    static RetryListener nop() {
+        return new RetryListener() {
+        };
+    }
+
+}
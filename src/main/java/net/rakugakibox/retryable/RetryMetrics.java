@@ -0,0 +1,205 @@
+package net.rakugakibox.retryable;
+
+import static java.util.Collections.unmodifiableMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of the retryable processes.
+ * It counts the times, the successes, the failures per exception type and the processes that cannot retry,
+ * and records the latencies of each time and of the whole processes.
+ * <p>
+ * Attach a shared instance with {@link Retryable#listener(RetryListener)},
+ * or get a named one from {@link RetryMetricsRegistry}.
+ * It's thread-safe, and counts with striped counters.
+ */
+public class RetryMetrics implements RetryListener {
+
+    /**
+     * The number of performed times.
+     */
+    private final LongAdder tries = new LongAdder();
+
+    /**
+     * The number of succeeded processes.
+     */
+    private final LongAdder successes = new LongAdder();
+
+    /**
+     * The number of processes that succeeded after retries.
+     */
+    private final LongAdder successesAfterRetry = new LongAdder();
+
+    /**
+     * The number of failed times.
+     */
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * The number of processes that cannot retry.
+     */
+    private final LongAdder exhausted = new LongAdder();
+
+    /**
+     * The number of failed times per exception type.
+     */
+    private final ConcurrentMap<Class<?>, LongAdder> failuresByType = new ConcurrentHashMap<>();
+
+    /**
+     * The latencies of each time.
+     */
+    private final LatencyHistogram tryLatency = new LatencyHistogram();
+
+    /**
+     * The latencies of the whole processes, until they succeed or cannot retry.
+     */
+    private final LatencyHistogram totalLatency = new LatencyHistogram();
+
+    /** {@inheritDoc} */
+    @Override
+    public void beforeTry(RetryableContext context) {
+        tries.increment();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onSuccess(RetryableContext context) {
+        long now = System.nanoTime();
+        successes.increment();
+        if (context.times() > 1L) {
+            successesAfterRetry.increment();
+        }
+        tryLatency.record(now - context.tryStartNanos());
+        totalLatency.record(now - context.startNanos());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onFailure(RetryableContext context) {
+        failures.increment();
+        context.exception().ifPresent(exception -> failures(exception.getClass()).increment());
+        tryLatency.record(System.nanoTime() - context.tryStartNanos());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onCannotRetry(RetryableContext context, CannotRetryException exception) {
+        exhausted.increment();
+        totalLatency.record(System.nanoTime() - context.startNanos());
+    }
+
+    /**
+     * Returns the counter of the failed times of the exception type.
+     *
+     * @param type the exception type.
+     * @return the counter.
+     */
+    private LongAdder failures(Class<?> type) {
+        LongAdder counter = failuresByType.get(type);
+        return counter != null ? counter : failuresByType.computeIfAbsent(type, key -> new LongAdder());
+    }
+
+    /**
+     * Returns the number of performed times.
+     *
+     * @return the number of performed times.
+     */
+    public long tries() {
+        return tries.sum();
+    }
+
+    /**
+     * Returns the number of succeeded processes.
+     *
+     * @return the number of succeeded processes.
+     */
+    public long successes() {
+        return successes.sum();
+    }
+
+    /**
+     * Returns the number of processes that succeeded after retries.
+     *
+     * @return the number of processes that succeeded after retries.
+     */
+    public long successesAfterRetry() {
+        return successesAfterRetry.sum();
+    }
+
+    /**
+     * Returns the number of failed times.
+     *
+     * @return the number of failed times.
+     */
+    public long failures() {
+        return failures.sum();
+    }
+
+    /**
+     * Returns the number of processes that cannot retry.
+     *
+     * @return the number of processes that cannot retry.
+     */
+    public long exhausted() {
+        return exhausted.sum();
+    }
+
+    /**
+     * Returns the number of failed times per exception type.
+     *
+     * @return the unmodifiable snapshot, sorted by the type name.
+     */
+    public Map<String, Long> failuresByType() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        failuresByType.forEach((type, counter) -> snapshot.put(type.getName(), counter.sum()));
+        return unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Returns the ratio of the performed times to the processes, i.e. the retry amplification.
+     *
+     * @return the ratio, or zero if no processes ended.
+     */
+    public double amplification() {
+        long processes = successes() + exhausted();
+        return processes == 0L ? 0.0 : (double) tries() / processes;
+    }
+
+    /**
+     * Returns the latencies of each time.
+     *
+     * @return the latencies of each time.
+     */
+    public LatencyHistogram tryLatency() {
+        return tryLatency;
+    }
+
+    /**
+     * Returns the latencies of the whole processes, until they succeed or cannot retry.
+     *
+     * @return the latencies of the whole processes.
+     */
+    public LatencyHistogram totalLatency() {
+        return totalLatency;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return RetryMetrics.class.getSimpleName()
+                + "("
+                + tries()
+                + " tries, "
+                + successes()
+                + " successes, "
+                + failures()
+                + " failures, "
+                + exhausted()
+                + " exhausted"
+                + ")";
+    }
+
+}
@@ -0,0 +1,50 @@
+package net.rakugakibox.retryable;
+
+import static java.util.Collections.unmodifiableMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.NonNull;
+
+/**
+ * The in-memory registry of the named retry metrics.
+ * It's thread-safe, and needs no external services.
+ */
+public class RetryMetricsRegistry {
+
+    /**
+     * The metrics per name.
+     */
+    private final ConcurrentMap<String, RetryMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the metrics of the name, and registers it if absent.
+     *
+     * @param name the name.
+     * @return the metrics.
+     */
+    public RetryMetrics metrics(@NonNull String name) {
+        RetryMetrics found = metrics.get(name);
+        return found != null ? found : metrics.computeIfAbsent(name, key -> new RetryMetrics());
+    }
+
+    /**
+     * Returns all metrics.
+     *
+     * @return the unmodifiable snapshot, sorted by the name.
+     */
+    public Map<String, RetryMetrics> metrics() {
+        return unmodifiableMap(new TreeMap<>(metrics));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return RetryMetricsRegistry.class.getSimpleName()
+                + "("
+                + metrics()
+                + ")";
+    }
+
+}
@@ -0,0 +1,190 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import static net.rakugakibox.retryable.Durations.requireNonNegative;
+import static net.rakugakibox.retryable.Durations.toNanos;
+
+/**
+ * The immutable pipeline of the retry handlers.
+ * Runs the handlers in a flat loop instead of a nested chain of {@link RetryHandler#andThen(RetryHandler)}.
+ * <p>
+ * The handlers are either checks (e.g. the number of retries, the exception types) or the others.
+ * Optionally, the checks run first, so a refused retry skips the others.
+ * <p>
+ * The deadline is checked after all handlers, so the interval before the next time is taken into account.
+ */
+@Slf4j
+final class RetryPipeline implements RetryHandler {
+
+    /**
+     * The empty pipeline.
+     */
+    private static final RetryPipeline EMPTY = new RetryPipeline(new RetryHandler[0], new boolean[0], false, -1L);
+
+    /**
+     * The handlers in the added order.
+     */
+    private final RetryHandler[] added;
+
+    /**
+     * Whether each of {@link #added} is a check.
+     */
+    private final boolean[] checks;
+
+    /**
+     * Whether the checks run first.
+     */
+    private final boolean checksFirst;
+
+    /**
+     * The handlers in the running order.
+     */
+    private final RetryHandler[] handlers;
+
+    /**
+     * The deadline from the start of the process in nanoseconds, or negative if no deadline.
+     */
+    private final long deadlineNanos;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param added the handlers in the added order.
+     * @param checks whether each of the handlers is a check.
+     * @param checksFirst whether the checks run first.
+     * @param deadlineNanos the deadline from the start of the process in nanoseconds, or negative if no deadline.
+     */
+    private RetryPipeline(RetryHandler[] added, boolean[] checks, boolean checksFirst, long deadlineNanos) {
+        this.added = added;
+        this.checks = checks;
+        this.checksFirst = checksFirst;
+        this.handlers = checksFirst ? checksFirst(added, checks) : added;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Returns the empty pipeline.
+     *
+     * @return the empty pipeline.
+     */
+    static RetryPipeline empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a pipeline that the handler is added to.
+     *
+     * @param handler the handler.
+     * @param check whether the handler is a check.
+     * @return the new pipeline.
+     */
+    RetryPipeline with(@NonNull RetryHandler handler, boolean check) {
+        RetryHandler[] newAdded = Arrays.copyOf(added, added.length + 1);
+        newAdded[added.length] = handler;
+        boolean[] newChecks = Arrays.copyOf(checks, checks.length + 1);
+        newChecks[checks.length] = check;
+        return new RetryPipeline(newAdded, newChecks, checksFirst, deadlineNanos);
+    }
+
+    /**
+     * Returns a pipeline that runs the checks first, or in the added order.
+     *
+     * @param checksFirst whether the checks run first.
+     * @return the new pipeline.
+     */
+    RetryPipeline checksFirst(boolean checksFirst) {
+        return checksFirst == this.checksFirst ? this : new RetryPipeline(added, checks, checksFirst, deadlineNanos);
+    }
+
+    /**
+     * Returns a pipeline that has the deadline.
+     *
+     * @param deadline the deadline from the start of the process.
+     * @return the new pipeline.
+     */
+    RetryPipeline deadline(@NonNull Duration deadline) {
+        long nanos = toNanos(requireNonNegative(deadline, "The deadline is negative."));
+        return new RetryPipeline(added, checks, checksFirst, nanos);
+    }
+
+    /**
+     * Returns the number of the handlers.
+     *
+     * @return the number of the handlers.
+     */
+    int size() {
+        return handlers.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handle(RetryableContext context) throws CannotRetryException {
+        for (RetryHandler handler : handlers) {
+            handler.handle(context);
+        }
+        if (deadlineNanos >= 0L) {
+            checkDeadline(context);
+        }
+    }
+
+    /**
+     * Checks that the next time starts before the deadline.
+     *
+     * @param context the context.
+     * @throws CannotRetryException if the next time would start after the deadline.
+     */
+    private void checkDeadline(RetryableContext context) throws CannotRetryException {
+        long remaining = deadlineNanos - (System.nanoTime() - context.startNanos());
+        long interval = toNanos(context.interval());
+        if (log.isDebugEnabled()) {
+            log.debug("Checks the deadline: remaining={}ns, interval={}ns, context={}", remaining, interval, context);
+        }
+        if (interval >= remaining) {
+            if (log.isDebugEnabled()) {
+                log.debug("The deadline would be exceeded: remaining={}ns, interval={}ns, context={}",
+                        remaining, interval, context);
+            }
+            throw new CannotRetryException(
+                    "The deadline would be exceeded", context.exception().orElse(null), context);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return RetryPipeline.class.getSimpleName()
+                + "("
+                + handlers.length
+                + " handlers"
+                + (checksFirst ? ", checks first" : "")
+                + (deadlineNanos >= 0L ? ", deadline " + Duration.ofNanos(deadlineNanos) : "")
+                + ")";
+    }
+
+    /**
+     * Orders the handlers so that the checks run first.
+     *
+     * @param added the handlers in the added order.
+     * @param checks whether each of the handlers is a check.
+     * @return the handlers in the running order.
+     */
+    private static RetryHandler[] checksFirst(RetryHandler[] added, boolean[] checks) {
+        RetryHandler[] handlers = new RetryHandler[added.length];
+        int index = 0;
+        for (int i = 0; i < added.length; i++) {
+            if (checks[i]) {
+                handlers[index++] = added[i];
+            }
+        }
+        for (int i = 0; i < added.length; i++) {
+            if (!checks[i]) {
+                handlers[index++] = added[i];
+            }
+        }
+        return handlers;
+    }
+
+}
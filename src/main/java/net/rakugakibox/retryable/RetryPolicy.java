@@ -0,0 +1,633 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lombok.NonNull;
+
+/**
+ * The immutable retry policy.
+ * It's built by {@link Retryable#policy()} once, and can be shared across threads, e.g. as a static final field.
+ * Variants are derived by {@link #derive()} without affecting this policy.
+ */
+public final class RetryPolicy {
+
+    /**
+     * The default policy, that retries infinitely without intervals.
+     */
+    private static final RetryPolicy DEFAULT = new RetryPolicy(new Settings());
+
+    /**
+     * The retry handlers.
+     */
+    private final RetryPipeline handler;
+
+    /**
+     * The retry listener.
+     */
+    private final RetryListener listener;
+
+    /**
+     * The timeout of each time.
+     */
+    private final AttemptTimeout timeout;
+
+    /**
+     * The hedging of each time.
+     */
+    private final Hedging hedging;
+
+    /**
+     * The retention of the exceptions.
+     */
+    private final ExceptionHistory history;
+
+    /**
+     * The rejection of the results.
+     */
+    private final ResultRejection rejection;
+
+    /**
+     * Whether {@link CannotRetryException} captures its stack trace.
+     */
+    private final boolean stackTraces;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param settings the settings.
+     */
+    private RetryPolicy(Settings settings) {
+        this.handler = settings.handler;
+        this.listener = settings.listener;
+        this.timeout = settings.timeout;
+        this.hedging = settings.hedging;
+        this.history = settings.history;
+        this.rejection = settings.rejection;
+        this.stackTraces = settings.stackTraces;
+    }
+
+    /**
+     * Returns the default policy, that retries infinitely without intervals.
+     *
+     * @return the default policy.
+     */
+    static RetryPolicy defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a policy that the settings are changed from this policy.
+     *
+     * @param change the change of the settings.
+     * @return the new policy.
+     */
+    private RetryPolicy with(Consumer<Settings> change) {
+        Settings settings = new Settings(this);
+        change.accept(settings);
+        return new RetryPolicy(settings);
+    }
+
+    /**
+     * Returns a policy that the retry handler is added to.
+     *
+     * @param handler the retry handler.
+     * @param check whether the handler checks whether can retry.
+     * @return the new policy.
+     */
+    RetryPolicy withHandler(RetryHandler handler, boolean check) {
+        return with(settings -> settings.handler = this.handler.with(handler, check));
+    }
+
+    /**
+     * Returns a policy that runs the checks first.
+     *
+     * @return the new policy.
+     */
+    RetryPolicy withChecksFirst() {
+        return with(settings -> settings.handler = handler.checksFirst(true));
+    }
+
+    /**
+     * Returns a policy that has the deadline.
+     *
+     * @param deadline the deadline from the start of the process.
+     * @return the new policy.
+     */
+    RetryPolicy withDeadline(Duration deadline) {
+        return with(settings -> settings.handler = handler.deadline(deadline));
+    }
+
+    /**
+     * Returns a policy that the retry listener is added to.
+     *
+     * @param listener the retry listener.
+     * @return the new policy.
+     */
+    RetryPolicy withListener(RetryListener listener) {
+        return with(settings -> settings.listener = this.listener == RetryableProcessor.NO_LISTENER
+                ? listener : this.listener.andThen(listener));
+    }
+
+    /**
+     * Returns a policy that has the timeout of each time.
+     *
+     * @param timeout the timeout of each time.
+     * @return the new policy.
+     */
+    RetryPolicy withTimeout(AttemptTimeout timeout) {
+        return with(settings -> settings.timeout = timeout);
+    }
+
+    /**
+     * Returns a policy that has the hedging of each time.
+     *
+     * @param hedging the hedging of each time.
+     * @return the new policy.
+     */
+    RetryPolicy withHedging(Hedging hedging) {
+        return with(settings -> settings.hedging = hedging);
+    }
+
+    /**
+     * Returns a policy that has the retention of the exceptions.
+     *
+     * @param history the retention of the exceptions.
+     * @return the new policy.
+     */
+    RetryPolicy withHistory(ExceptionHistory history) {
+        return with(settings -> settings.history = history);
+    }
+
+    /**
+     * Returns a policy that also rejects the results matching the predicate.
+     *
+     * @param predicate the predicate that rejects a result.
+     * @return the new policy.
+     */
+    RetryPolicy withRejection(Predicate<Object> predicate) {
+        return with(settings -> settings.rejection = rejection.or(predicate));
+    }
+
+    /**
+     * Returns a policy that captures or doesn't capture the stack trace of {@link CannotRetryException}.
+     *
+     * @param stackTraces whether {@link CannotRetryException} captures its stack trace.
+     * @return the new policy.
+     */
+    RetryPolicy withStackTraces(boolean stackTraces) {
+        return with(settings -> settings.stackTraces = stackTraces);
+    }
+
+    /**
+     * Returns the retry handlers.
+     *
+     * @return the retry handlers.
+     */
+    RetryHandler handler() {
+        return handler;
+    }
+
+    /**
+     * Returns the retry listener.
+     *
+     * @return the retry listener.
+     */
+    RetryListener listener() {
+        return listener;
+    }
+
+    /**
+     * Returns the retention of the exceptions.
+     *
+     * @return the retention of the exceptions.
+     */
+    ExceptionHistory history() {
+        return history;
+    }
+
+    /**
+     * Returns the rejection of the results.
+     *
+     * @return the rejection of the results.
+     */
+    ResultRejection rejection() {
+        return rejection;
+    }
+
+    /**
+     * Returns whether {@link CannotRetryException} captures its stack trace.
+     *
+     * @return {@code true} if captures the stack trace.
+     */
+    boolean stackTraces() {
+        return stackTraces;
+    }
+
+    /**
+     * Returns the process that the timeout and the hedging of each time are applied to.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @return the applied process.
+     */
+    <T> RetryableProcess<T> apply(RetryableProcess<T> process) {
+        return timeout.apply(hedging.apply(process));
+    }
+
+    /**
+     * Returns whether the times run on the executor of the timeout or the hedging, apart from the retry loop.
+     *
+     * @return {@code true} if the policy has the timeout or the hedging.
+     */
+    boolean detached() {
+        return timeout != AttemptTimeout.none() || hedging != Hedging.none();
+    }
+
+    /**
+     * Returns the asynchronous process that runs each time on the executor of the timeout or the hedging,
+     * and that the timeout and the hedging are applied to without waiting for the times.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @param scheduler the scheduler that times out the times and launches the hedged attempts.
+     * @return the applied asynchronous process.
+     * @throws IllegalStateException if the policy has neither the timeout nor the hedging.
+     */
+    <T> RetryableStage<T> apply(RetryableProcess<T> process, ScheduledExecutorService scheduler) {
+        if (!detached()) {
+            throw new IllegalStateException("The policy has neither the timeout nor the hedging.");
+        }
+        return apply(hedging == Hedging.none() ? timeout.async(process) : hedging.async(process), scheduler);
+    }
+
+    /**
+     * Returns the asynchronous process that the timeout and the hedging of each time are applied to.
+     *
+     * @param <T> the result type.
+     * @param process the retryable asynchronous process.
+     * @param scheduler the scheduler that times out the times and launches the hedged attempts.
+     * @return the applied asynchronous process.
+     */
+    <T> RetryableStage<T> apply(RetryableStage<T> process, ScheduledExecutorService scheduler) {
+        return timeout.apply(hedging.apply(process, scheduler), scheduler);
+    }
+
+    /**
+     * Returns a new builder that starts with this policy.
+     * Changes to the builder do not affect this policy.
+     *
+     * @return the new builder.
+     */
+    public Retryable derive() {
+        return new Retryable(this);
+    }
+
+    /**
+     * Returns a processor.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @return a processor.
+     */
+    public <T> RetryableProcessor<T> process(RetryableProcess<T> process) {
+        return new RetryableProcessor<>(this, process);
+    }
+
+    /**
+     * Performs the retryable process, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @return the result.
+     * @throws CannotRetryException if cannot retry.
+     */
+    public <T> T perform(RetryableProcess<T> process) throws CannotRetryException {
+        return RetryableProcessor.perform(this, process);
+    }
+
+    /**
+     * Performs the retryable process, or waits for the one of the same key in progress.
+     * The concurrent callers of the same key share a single retry loop and its context,
+     * and receive its result or {@link CannotRetryException}.
+     *
+     * @param <K> the key type.
+     * @param <T> the result type.
+     * @param flight the coalescing by the keys.
+     * @param key the key.
+     * @param process the retryable process.
+     * @return the result.
+     * @throws CannotRetryException if cannot retry.
+     */
+    public <K, T> T perform(@NonNull SingleFlight<K, T> flight, K key, RetryableProcess<T> process)
+            throws CannotRetryException {
+        return flight.perform(key, () -> perform(process));
+    }
+
+    /**
+     * Calls the retryable process, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param function the retryable process.
+     * @return the result.
+     * @throws CannotRetryException if cannot retry.
+     */
+    public <T> T call(RetryableProcess.Function<T> function) throws CannotRetryException {
+        return perform(function);
+    }
+
+    /**
+     * Calls the retryable process, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param function the retryable process.
+     * @return the result.
+     * @throws CannotRetryException if cannot retry.
+     */
+    public <T> T call(RetryableProcess.NonContextualFunction<T> function) throws CannotRetryException {
+        return perform(function);
+    }
+
+    /**
+     * Runs the retryable process, and handle the retry handler.
+     *
+     * @param procedure the retryable process.
+     * @throws CannotRetryException if cannot retry.
+     */
+    public void run(RetryableProcess.Procedure procedure) throws CannotRetryException {
+        perform(procedure);
+    }
+
+    /**
+     * Runs the retryable process, and handle the retry handler.
+     *
+     * @param procedure the retryable process.
+     * @throws CannotRetryException if cannot retry.
+     */
+    public void run(RetryableProcess.NonContextualProcedure procedure) throws CannotRetryException {
+        perform(procedure);
+    }
+
+    /**
+     * Performs the retryable process asynchronously, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @param executor the executor that runs the tries and waits the intervals.
+     * @return the future of the result.
+     */
+    public <T> CompletableFuture<T> performAsync(RetryableProcess<T> process, ScheduledExecutorService executor) {
+        return process(process).performAsync(executor);
+    }
+
+    /**
+     * Performs the retryable process of a batch, and handle the retry handler.
+     * Each time processes only the inputs that have not succeeded yet,
+     * and the retry handlers and the interval apply once per time, not per input.
+     * The timeout and the hedging do not apply.
+     *
+     * @param <I> the input type.
+     * @param <O> the output type.
+     * @param inputs the inputs.
+     * @param process the retryable process of a batch.
+     * @return the result, that has the exceptions of the failed inputs if cannot retry.
+     * @throws IllegalArgumentException if the process reported an input that is not of the batch.
+     */
+    public <I, O> BatchResult<I, O> performBatch(Collection<I> inputs, RetryableBatchProcess<I, O> process) {
+        return RetryableProcessor.performBatch(this, inputs, process);
+    }
+
+    /**
+     * Maps the elements in parallel, and retries each element independently.
+     * At most {@code parallelism} elements are running at once,
+     * and the elements are pulled from the source only when a running element completes.
+     * The result stream throws {@link CannotRetryException} when an element cannot retry.
+     *
+     * @param <I> the element type.
+     * @param <O> the result type.
+     * @param elements the elements.
+     * @param mapper the retryable process of an element.
+     * @param parallelism the maximum number of running elements.
+     * @param ordered whether the results keep the order of the elements, or are in the order of the completion.
+     * @param executor the executor that maps the elements, e.g. a {@link java.util.concurrent.ForkJoinPool}.
+     * @return the sequential stream of the results.
+     */
+    public <I, O> Stream<O> map(
+            @NonNull Iterable<I> elements, @NonNull RetryableMapper<I, O> mapper,
+            int parallelism, boolean ordered, @NonNull Executor executor) {
+        return ParallelMapping.stream(
+                elements.iterator(), element -> call(() -> mapper.map(element)), parallelism, ordered, executor);
+    }
+
+    /**
+     * Maps the elements in parallel, and retries each element independently.
+     * Closing the result stream closes the source stream.
+     *
+     * @param <I> the element type.
+     * @param <O> the result type.
+     * @param elements the elements.
+     * @param mapper the retryable process of an element.
+     * @param parallelism the maximum number of running elements.
+     * @param ordered whether the results keep the order of the elements, or are in the order of the completion.
+     * @param executor the executor that maps the elements, e.g. a {@link java.util.concurrent.ForkJoinPool}.
+     * @return the sequential stream of the results.
+     * @see #map(Iterable, RetryableMapper, int, boolean, Executor)
+     */
+    public <I, O> Stream<O> map(
+            @NonNull Stream<I> elements, @NonNull RetryableMapper<I, O> mapper,
+            int parallelism, boolean ordered, @NonNull Executor executor) {
+        return ParallelMapping.stream(elements.iterator(), element -> call(() -> mapper.map(element)),
+                parallelism, ordered, executor).onClose(elements::close);
+    }
+
+    /**
+     * Performs the retryable asynchronous process, and handle the retry handler.
+     * No threads are blocked: each time starts the process again when the previous stage failed,
+     * and the intervals are scheduled on the scheduler.
+     * The timeout and the hedging apply to each stage without blocking, and also use the scheduler.
+     *
+     * @param <T> the result type.
+     * @param process the retryable asynchronous process.
+     * @param scheduler the scheduler that waits the intervals.
+     * @return the future of the result.
+     */
+    public <T> CompletableFuture<T> performStage(
+            @NonNull RetryableStage<T> process, @NonNull ScheduledExecutorService scheduler) {
+        return StageProcessor.perform(this, apply(process, scheduler), scheduler);
+    }
+
+    /**
+     * Calls the retryable asynchronous process, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param supplier the retryable asynchronous process.
+     * @param scheduler the scheduler that waits the intervals.
+     * @return the future of the result.
+     * @see #performStage(RetryableStage, ScheduledExecutorService)
+     */
+    public <T> CompletableFuture<T> callStage(
+            @NonNull Supplier<? extends CompletionStage<T>> supplier, @NonNull ScheduledExecutorService scheduler) {
+        return performStage(context -> supplier.get(), scheduler);
+    }
+
+    /**
+     * Performs the retryable process on the executor, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @param executor the executor that runs the process, and sleeps for the intervals.
+     * @return the future of the result.
+     * @see RetryableProcessor#performOn(Executor)
+     */
+    public <T> CompletableFuture<T> performOn(RetryableProcess<T> process, Executor executor) {
+        return process(process).performOn(executor);
+    }
+
+    /**
+     * Performs the retryable process on a new virtual thread of Java 21 or later, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @return the future of the result.
+     * @throws UnsupportedOperationException if the virtual threads are not available.
+     * @see RetryableProcessor#performOnVirtualThread()
+     */
+    public <T> CompletableFuture<T> performOnVirtualThread(RetryableProcess<T> process)
+            throws UnsupportedOperationException {
+        return process(process).performOnVirtualThread();
+    }
+
+    /**
+     * Calls the retryable process asynchronously, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param function the retryable process.
+     * @param executor the executor that runs the tries and waits the intervals.
+     * @return the future of the result.
+     */
+    public <T> CompletableFuture<T> callAsync(
+            RetryableProcess.Function<T> function, ScheduledExecutorService executor) {
+        return performAsync(function, executor);
+    }
+
+    /**
+     * Calls the retryable process asynchronously, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param function the retryable process.
+     * @param executor the executor that runs the tries and waits the intervals.
+     * @return the future of the result.
+     */
+    public <T> CompletableFuture<T> callAsync(
+            RetryableProcess.NonContextualFunction<T> function, ScheduledExecutorService executor) {
+        return performAsync(function, executor);
+    }
+
+    /**
+     * Runs the retryable process asynchronously, and handle the retry handler.
+     *
+     * @param procedure the retryable process.
+     * @param executor the executor that runs the tries and waits the intervals.
+     * @return the future of the completion.
+     */
+    public CompletableFuture<Void> runAsync(
+            RetryableProcess.Procedure procedure, ScheduledExecutorService executor) {
+        return performAsync(procedure, executor);
+    }
+
+    /**
+     * Runs the retryable process asynchronously, and handle the retry handler.
+     *
+     * @param procedure the retryable process.
+     * @param executor the executor that runs the tries and waits the intervals.
+     * @return the future of the completion.
+     */
+    public CompletableFuture<Void> runAsync(
+            RetryableProcess.NonContextualProcedure procedure, ScheduledExecutorService executor) {
+        return performAsync(procedure, executor);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return RetryPolicy.class.getSimpleName()
+                + "("
+                + handler
+                + (timeout == AttemptTimeout.none() ? "" : ", " + timeout)
+                + (hedging == Hedging.none() ? "" : ", " + hedging)
+                + (rejection == ResultRejection.none() ? "" : ", " + rejection)
+                + (stackTraces ? "" : ", without stack traces")
+                + ")";
+    }
+
+    /**
+     * The mutable settings of a policy, that a new policy is constructed from.
+     */
+    private static final class Settings {
+
+        /**
+         * The retry handlers.
+         */
+        private RetryPipeline handler = RetryPipeline.empty();
+
+        /**
+         * The retry listener.
+         */
+        private RetryListener listener = RetryableProcessor.NO_LISTENER;
+
+        /**
+         * The timeout of each time.
+         */
+        private AttemptTimeout timeout = AttemptTimeout.none();
+
+        /**
+         * The hedging of each time.
+         */
+        private Hedging hedging = Hedging.none();
+
+        /**
+         * The retention of the exceptions.
+         */
+        private ExceptionHistory history = ExceptionHistory.all();
+
+        /**
+         * The rejection of the results.
+         */
+        private ResultRejection rejection = ResultRejection.none();
+
+        /**
+         * Whether {@link CannotRetryException} captures its stack trace.
+         */
+        private boolean stackTraces = true;
+
+        /**
+         * Constructs an instance of the default settings.
+         */
+        private Settings() {
+        }
+
+        /**
+         * Constructs an instance that starts with the settings of the policy.
+         *
+         * @param policy the policy.
+         */
+        private Settings(RetryPolicy policy) {
+            this.handler = policy.handler;
+            this.listener = policy.listener;
+            this.timeout = policy.timeout;
+            this.hedging = policy.hedging;
+            this.history = policy.history;
+            this.rejection = policy.rejection;
+            this.stackTraces = policy.stackTraces;
+        }
+
+    }
+
+}
@@ -1,31 +1,59 @@
 package net.rakugakibox.retryable;
 
-import static java.lang.Thread.sleep;
 import java.time.Duration;
-import java.util.ArrayList;
 import static java.util.Arrays.asList;
 import java.util.Collection;
-import static java.util.Collections.unmodifiableList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Provides a retry of the code block.
  * Runs a code block, and retries it when an exception occurs.
+ * <p>
+ * It's a builder, and is not thread-safe while being configured.
+ * To share a configuration across threads, build an immutable {@link RetryPolicy} with {@link #policy()}.
  */
 @Slf4j
 public class Retryable {
 
     /**
-     * The retry handler.
+     * The current policy.
      */
-    private RetryHandler handler = RetryHandler.nop();
+    private RetryPolicy policy;
 
     /**
      * Constructs an instance.
      */
     public Retryable() {
+        this(RetryPolicy.defaults());
+    }
+
+    /**
+     * Constructs an instance that starts with the policy.
+     *
+     * @param policy the policy.
+     */
+    Retryable(@NonNull RetryPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Returns the immutable policy of the current configuration.
+     * Subsequent changes to this instance do not affect the returned policy.
+     *
+     * @return the immutable policy.
+     */
+    public RetryPolicy policy() {
+        return policy;
     }
 
     /**
@@ -36,7 +64,97 @@ public class Retryable {
      */
     public Retryable on(@NonNull RetryHandler handler) {
         log.debug("Adds the retry processing: {}", handler);
-        this.handler = this.handler.andThen(handler);
+        this.policy = policy.withHandler(handler, false);
+        return this;
+    }
+
+    /**
+     * Adds the retry processing that checks whether can retry.
+     *
+     * @param check the retry processing that checks whether can retry.
+     * @return this instance.
+     * @see #checksFirst()
+     */
+    private Retryable check(RetryHandler check) {
+        log.debug("Adds the retry check: {}", check);
+        this.policy = policy.withHandler(check, true);
+        return this;
+    }
+
+    /**
+     * Runs the checks first, regardless of the added order.
+     * The checks are the limits of the exception types and the number of retries,
+     * so a refused retry skips the other retry processing.
+     *
+     * @return this instance.
+     */
+    public Retryable checksFirst() {
+        log.debug("Runs the checks first.");
+        this.policy = policy.withChecksFirst();
+        return this;
+    }
+
+    /**
+     * Adds the listener of the times.
+     *
+     * @param listener the listener of the times.
+     * @return this instance.
+     * @see CircuitBreaker
+     */
+    public Retryable listener(@NonNull RetryListener listener) {
+        log.debug("Adds the listener: {}", listener);
+        this.policy = policy.withListener(listener);
+        return this;
+    }
+
+    /**
+     * Adds the adaptive retry, that adjusts the number of retries and the intervals by the recent times.
+     * It's both a retry processing and a listener, and can be shared across the retryable processes.
+     *
+     * @param adaptive the adaptive retry.
+     * @return this instance.
+     */
+    public Retryable adaptive(@NonNull AdaptiveRetry adaptive) {
+        return on(adaptive).listener(adaptive);
+    }
+
+    /**
+     * Adds the bulkhead, that bounds the concurrent first times and retries.
+     * It's both a retry processing and a listener, and can be shared across the retryable processes.
+     *
+     * @param bulkhead the bulkhead.
+     * @return this instance.
+     */
+    public Retryable bulkhead(@NonNull Bulkhead bulkhead) {
+        return on(bulkhead).listener(bulkhead);
+    }
+
+    /**
+     * Sets the retention of the exceptions in the context, e.g. {@link ExceptionHistory#last(int)}.
+     * By default, all exceptions are retained.
+     *
+     * @param history the retention of the exceptions.
+     * @return this instance.
+     */
+    public Retryable history(@NonNull ExceptionHistory history) {
+        log.debug("Sets the retention of the exceptions: {}", history);
+        this.policy = policy.withHistory(history);
+        return this;
+    }
+
+    /**
+     * Sets whether {@link CannotRetryException} captures its stack trace.
+     * Capturing a stack trace dominates the cost of a failed process,
+     * e.g. when many processes fail fast under an outage.
+     * Without it, the cause and the context are still available, and the cause has its own stack trace.
+     * By default, the stack trace is captured.
+     *
+     * @param stackTraces whether {@link CannotRetryException} captures its stack trace.
+     * @return this instance.
+     */
+    public Retryable stackTraces(boolean stackTraces) {
+        log.debug("Sets whether to capture the stack traces: {}", stackTraces);
+        this.policy = policy.withStackTraces(stackTraces);
         return this;
     }
 
@@ -47,14 +165,28 @@ public class Retryable {
      * @return this instance.
      */
     public Retryable on(@NonNull Collection<Class<? extends Exception>> types) {
-        Collection<Class<? extends Exception>> unmodifiableTypes = unmodifiableList(new ArrayList<>(types));
-        log.debug("Limits the retryable exception types: {}", unmodifiableTypes);
-        return on(context -> {
+        return on(ExceptionClassifier.include(types));
+    }
+
+    /**
+     * Limits the retryable exceptions.
+     * The results rejected by {@link #retryIf(Predicate)} are retryable regardless of the classifier.
+     *
+     * @param classifier the classifier of the retryable exceptions.
+     * @return this instance.
+     */
+    public Retryable on(@NonNull ExceptionClassifier classifier) {
+        log.debug("Limits the retryable exceptions: {}", classifier);
+        return check(context -> {
             Exception exception = context.exception().get();
-            log.debug("Checks the limit of the retryable exception types: "
-                    + "exception={}, types={}", exception, unmodifiableTypes);
-            if (!unmodifiableTypes.stream().anyMatch(type -> type.isInstance(exception))) {
-                log.debug("An exception type did not match: exception={}, types={}", exception, unmodifiableTypes);
+            if (log.isDebugEnabled()) {
+                log.debug("Checks the limit of the retryable exceptions: "
+                        + "exception={}, classifier={}", exception, classifier);
+            }
+            if (!(exception instanceof RejectedResultException) && !classifier.retryable(exception)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("An exception type did not match: exception={}, classifier={}", exception, classifier);
+                }
                 throw new CannotRetryException("An exception type did not match", exception, context);
             }
         });
@@ -72,6 +204,36 @@ public class Retryable {
         return on(asList(types));
     }
 
+    /**
+     * Retries when the result matches the predicate, e.g. an error status code or an empty result.
+     * A rejected result fails the time with {@link RejectedResultException}, that captures no stack trace,
+     * and it's available by {@link RetryableContext#rejectedResult()}.
+     * Applies to the processes that return a result directly, not to the batches and the stages.
+     * An exception thrown by the predicate is not retried, and propagates to the caller.
+     *
+     * @param predicate the predicate that rejects a result.
+     * @return this instance.
+     */
+    public Retryable retryIf(@NonNull Predicate<Object> predicate) {
+        log.debug("Rejects the results: {}", predicate);
+        this.policy = policy.withRejection(predicate);
+        return this;
+    }
+
+    /**
+     * Retries when the result is an instance of the type and matches the predicate.
+     * The results of the other types, including {@code null}, are not rejected.
+     *
+     * @param <R> the result type.
+     * @param type the result type.
+     * @param predicate the predicate that rejects a result.
+     * @return this instance.
+     * @see #retryIf(Predicate)
+     */
+    public <R> Retryable retryIf(@NonNull Class<R> type, @NonNull Predicate<? super R> predicate) {
+        return retryIf(result -> type.isInstance(result) && predicate.test(type.cast(result)));
+    }
+
     /**
      * Limits the number of retries.
      * Should an exception occur, it'll retry for {@code (retries)} times.
@@ -81,11 +243,15 @@ public class Retryable {
      */
     public Retryable retries(long retries) {
         log.debug("Limits the number of retries: {}", retries);
-        return on(context -> {
+        return check(context -> {
             long times = context.times();
-            log.debug("Checks the limit of the maximum number of retries: times={}, retries={}", times, retries);
+            if (log.isDebugEnabled()) {
+                log.debug("Checks the limit of the maximum number of retries: times={}, retries={}", times, retries);
+            }
             if (times > retries) {
-                log.debug("Maximum number of retry attempts reached: times={}, retries={}", times, retries);
+                if (log.isDebugEnabled()) {
+                    log.debug("Maximum number of retry attempts reached: times={}, retries={}", times, retries);
+                }
                 throw new CannotRetryException(
                         "Maximum number of retry attempts reached", context.exception().get(), context);
             }
@@ -103,6 +269,88 @@ public class Retryable {
         return retries(tries - 1L);
     }
 
+    /**
+     * Limits the total time from the start of the first time.
+     * It's checked after all handlers, and refuses a retry whose interval would end after the deadline.
+     *
+     * @param deadline the deadline from the start of the first time.
+     * @return this instance.
+     */
+    public Retryable deadline(@NonNull Duration deadline) {
+        log.debug("Limits the total time: {}", deadline);
+        this.policy = policy.withDeadline(deadline);
+        return this;
+    }
+
+    /**
+     * Limits the total time from the start of the first time.
+     *
+     * @param deadline the deadline from the start of the first time.
+     * @param unit the unit of deadline.
+     * @return this instance.
+     */
+    public Retryable deadline(long deadline, TimeUnit unit) {
+        return deadline(Duration.ofNanos(unit.toNanos(deadline)));
+    }
+
+    /**
+     * Limits the time of each time.
+     * Each time runs on the executor, and is cancelled with an interruption when it times out.
+     * The timed out time fails with {@link java.util.concurrent.TimeoutException}, and is handled like the others.
+     * The asynchronous and stage processes are raced against a timer on their scheduler, so no thread waits for a time.
+     * It does not apply to {@link #performBatch(Collection, RetryableBatchProcess)},
+     * whose time reports the inputs one by one.
+     *
+     * @param timeout the timeout of each time.
+     * @param executor the executor that runs the times, e.g. a cached thread pool.
+     * @return this instance.
+     */
+    public Retryable timeout(@NonNull Duration timeout, @NonNull ExecutorService executor) {
+        log.debug("Limits the time of each time: timeout={}, executor={}", timeout, executor);
+        this.policy = policy.withTimeout(AttemptTimeout.of(timeout, executor));
+        return this;
+    }
+
+    /**
+     * Hedges each time for the latency.
+     * When no attempt has completed within the delay, another attempt of the same time is launched,
+     * up to the maximum number of parallel attempts.
+     * The first successful attempt wins, and the others are cancelled with an interruption.
+     * The asynchronous and stage processes launch the attempts from their scheduler, so no thread waits for a time.
+     * It does not apply to {@link #performBatch(Collection, RetryableBatchProcess)},
+     * whose time reports the inputs one by one.
+     *
+     * @param delay the delay before launching another attempt.
+     * @param maxParallel the maximum number of parallel attempts, greater than 1.
+     * @param executor the executor that runs the attempts, e.g. a cached thread pool.
+     * @return this instance.
+     */
+    public Retryable hedge(@NonNull Duration delay, int maxParallel, @NonNull ExecutorService executor) {
+        log.debug("Hedges each time: delay={}, maxParallel={}, executor={}", delay, maxParallel, executor);
+        this.policy = policy.withHedging(Hedging.of(delay, maxParallel, executor));
+        return this;
+    }
+
+    /**
+     * Hedges each time for the latency, after the percentile of the latencies.
+     * It does not hedge until a latency is recorded.
+     *
+     * @param latencies the latencies, e.g. {@link RetryMetrics#tryLatency()}.
+     * @param percentile the percentile, e.g. 0.95.
+     * @param maxParallel the maximum number of parallel attempts, greater than 1.
+     * @param executor the executor that runs the attempts, e.g. a cached thread pool.
+     * @return this instance.
+     * @see #hedge(Duration, int, ExecutorService)
+     */
+    public Retryable hedge(
+            @NonNull LatencyHistogram latencies, double percentile,
+            int maxParallel, @NonNull ExecutorService executor) {
+        log.debug("Hedges each time: latencies={}, percentile={}, maxParallel={}, executor={}",
+                latencies, percentile, maxParallel, executor);
+        this.policy = policy.withHedging(Hedging.of(latencies, percentile, maxParallel, executor));
+        return this;
+    }
+
     /**
      * Adds the interval.
      *
@@ -111,15 +359,7 @@ public class Retryable {
      */
     public Retryable interval(@NonNull Duration duration) {
         log.debug("Adds the interval: {}", duration);
-        return on(context -> {
-            try {
-                log.debug("Sleeps: duration={}", duration);
-                sleep(duration.toMillis(), duration.getNano());
-            } catch (InterruptedException exception) {
-                log.debug("A sleep was interrupted: exception={}, duration={}", exception, duration);
-                throw new CannotRetryException("A sleep was interrupted", exception, context);
-            }
-        });
+        return backoff(Backoff.fixed(duration));
     }
 
     /**
@@ -154,6 +394,24 @@ public class Retryable {
         return interval(Duration.ofMillis(millis));
     }
 
+    /**
+     * Adds the interval that is computed by the strategy.
+     *
+     * @param backoff the strategy that computes the interval.
+     * @return this instance.
+     * @see Backoff
+     */
+    public Retryable backoff(@NonNull Backoff backoff) {
+        log.debug("Adds the backoff: {}", backoff);
+        return on(context -> {
+            Duration interval = backoff.interval(context);
+            if (log.isDebugEnabled()) {
+                log.debug("Adds the interval before the next time: interval={}, context={}", interval, context);
+            }
+            context.interval(interval);
+        });
+    }
+
     /**
      * Returns a processor.
      *
@@ -162,7 +420,7 @@ public class Retryable {
      * @return a processor.
      */
     public <T> RetryableProcessor<T> process(RetryableProcess<T> process) {
-        return new RetryableProcessor<>(process, handler);
+        return policy.process(process);
     }
 
     /**
@@ -216,7 +474,25 @@ public class Retryable {
      * @throws CannotRetryException if cannot retry.
      */
     public <T> T perform(RetryableProcess<T> process) throws CannotRetryException {
-        return process(process).perform();
+        return policy.perform(process);
+    }
+
+    /**
+     * Performs the retryable process, or waits for the one of the same key in progress.
+     * The concurrent callers of the same key share a single retry loop and its context,
+     * and receive its result or {@link CannotRetryException}.
+     *
+     * @param <K> the key type.
+     * @param <T> the result type.
+     * @param flight the coalescing by the keys.
+     * @param key the key.
+     * @param process the retryable process.
+     * @return the result.
+     * @throws CannotRetryException if cannot retry.
+     */
+    public <K, T> T perform(SingleFlight<K, T> flight, K key, RetryableProcess<T> process)
+            throws CannotRetryException {
+        return policy.perform(flight, key, process);
     }
 
     /**
@@ -228,7 +504,7 @@ public class Retryable {
      * @throws CannotRetryException if cannot retry.
      */
     public <T> T call(RetryableProcess.Function<T> function) throws CannotRetryException {
-        return function(function).perform();
+        return perform(function);
     }
 
     /**
@@ -240,7 +516,7 @@ public class Retryable {
      * @throws CannotRetryException if cannot retry.
      */
     public <T> T call(RetryableProcess.NonContextualFunction<T> function) throws CannotRetryException {
-        return function(function).perform();
+        return perform(function);
     }
 
     /**
@@ -250,7 +526,7 @@ public class Retryable {
      * @throws CannotRetryException if cannot retry.
      */
     public void run(RetryableProcess.Procedure procedure) throws CannotRetryException {
-        procedure(procedure).perform();
+        perform(procedure);
     }
 
     /**
@@ -260,7 +536,184 @@ public class Retryable {
      * @throws CannotRetryException if cannot retry.
      */
     public void run(RetryableProcess.NonContextualProcedure procedure) throws CannotRetryException {
-        procedure(procedure).perform();
+        perform(procedure);
+    }
+
+    /**
+     * Performs the retryable process asynchronously, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @param executor the executor that runs the tries and waits the intervals.
+     * @return the future of the result.
+     */
+    public <T> CompletableFuture<T> performAsync(RetryableProcess<T> process, ScheduledExecutorService executor) {
+        return process(process).performAsync(executor);
+    }
+
+    /**
+     * Performs the retryable process of a batch, and handle the retry handler.
+     * Each time processes only the inputs that have not succeeded yet,
+     * and the retry handlers and the interval apply once per time, not per input.
+     * The timeout and the hedging do not apply.
+     *
+     * @param <I> the input type.
+     * @param <O> the output type.
+     * @param inputs the inputs.
+     * @param process the retryable process of a batch.
+     * @return the result, that has the exceptions of the failed inputs if cannot retry.
+     * @throws IllegalArgumentException if the process reported an input that is not of the batch.
+     */
+    public <I, O> BatchResult<I, O> performBatch(Collection<I> inputs, RetryableBatchProcess<I, O> process) {
+        return policy.performBatch(inputs, process);
+    }
+
+    /**
+     * Maps the elements in parallel, and retries each element independently.
+     * At most {@code parallelism} elements are running at once,
+     * and the elements are pulled from the source only when a running element completes.
+     * The result stream throws {@link CannotRetryException} when an element cannot retry.
+     *
+     * @param <I> the element type.
+     * @param <O> the result type.
+     * @param elements the elements.
+     * @param mapper the retryable process of an element.
+     * @param parallelism the maximum number of running elements.
+     * @param ordered whether the results keep the order of the elements, or are in the order of the completion.
+     * @param executor the executor that maps the elements, e.g. a {@link java.util.concurrent.ForkJoinPool}.
+     * @return the sequential stream of the results.
+     */
+    public <I, O> Stream<O> map(
+            @NonNull Iterable<I> elements, @NonNull RetryableMapper<I, O> mapper,
+            int parallelism, boolean ordered, @NonNull Executor executor) {
+        return policy.map(elements, mapper, parallelism, ordered, executor);
+    }
+
+    /**
+     * Maps the elements in parallel, and retries each element independently.
+     * Closing the result stream closes the source stream.
+     *
+     * @param <I> the element type.
+     * @param <O> the result type.
+     * @param elements the elements.
+     * @param mapper the retryable process of an element.
+     * @param parallelism the maximum number of running elements.
+     * @param ordered whether the results keep the order of the elements, or are in the order of the completion.
+     * @param executor the executor that maps the elements, e.g. a {@link java.util.concurrent.ForkJoinPool}.
+     * @return the sequential stream of the results.
+     * @see #map(Iterable, RetryableMapper, int, boolean, Executor)
+     */
+    public <I, O> Stream<O> map(
+            @NonNull Stream<I> elements, @NonNull RetryableMapper<I, O> mapper,
+            int parallelism, boolean ordered, @NonNull Executor executor) {
+        return policy.map(elements, mapper, parallelism, ordered, executor);
+    }
+
+    /**
+     * Performs the retryable asynchronous process, and handle the retry handler.
+     * No threads are blocked: each time starts the process again when the previous stage failed,
+     * and the intervals are scheduled on the scheduler.
+     * The timeout and the hedging apply to each stage without blocking, and also use the scheduler.
+     *
+     * @param <T> the result type.
+     * @param process the retryable asynchronous process.
+     * @param scheduler the scheduler that waits the intervals.
+     * @return the future of the result.
+     */
+    public <T> CompletableFuture<T> performStage(
+            @NonNull RetryableStage<T> process, @NonNull ScheduledExecutorService scheduler) {
+        return policy.performStage(process, scheduler);
+    }
+
+    /**
+     * Calls the retryable asynchronous process, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param supplier the retryable asynchronous process.
+     * @param scheduler the scheduler that waits the intervals.
+     * @return the future of the result.
+     * @see #performStage(RetryableStage, ScheduledExecutorService)
+     */
+    public <T> CompletableFuture<T> callStage(
+            @NonNull Supplier<? extends CompletionStage<T>> supplier, @NonNull ScheduledExecutorService scheduler) {
+        return performStage(context -> supplier.get(), scheduler);
+    }
+
+    /**
+     * Performs the retryable process on the executor, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @param executor the executor that runs the process, and sleeps for the intervals.
+     * @return the future of the result.
+     * @see RetryableProcessor#performOn(Executor)
+     */
+    public <T> CompletableFuture<T> performOn(RetryableProcess<T> process, Executor executor) {
+        return process(process).performOn(executor);
+    }
+
+    /**
+     * Performs the retryable process on a new virtual thread of Java 21 or later, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @return the future of the result.
+     * @throws UnsupportedOperationException if the virtual threads are not available.
+     * @see RetryableProcessor#performOnVirtualThread()
+     */
+    public <T> CompletableFuture<T> performOnVirtualThread(RetryableProcess<T> process)
+            throws UnsupportedOperationException {
+        return process(process).performOnVirtualThread();
+    }
+
+    /**
+     * Calls the retryable process asynchronously, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param function the retryable process.
+     * @param executor the executor that runs the tries and waits the intervals.
+     * @return the future of the result.
+     */
+    public <T> CompletableFuture<T> callAsync(
+            RetryableProcess.Function<T> function, ScheduledExecutorService executor) {
+        return function(function).performAsync(executor);
+    }
+
+    /**
+     * Calls the retryable process asynchronously, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param function the retryable process.
+     * @param executor the executor that runs the tries and waits the intervals.
+     * @return the future of the result.
+     */
+    public <T> CompletableFuture<T> callAsync(
+            RetryableProcess.NonContextualFunction<T> function, ScheduledExecutorService executor) {
+        return function(function).performAsync(executor);
+    }
+
+    /**
+     * Runs the retryable process asynchronously, and handle the retry handler.
+     *
+     * @param procedure the retryable process.
+     * @param executor the executor that runs the tries and waits the intervals.
+     * @return the future of the completion.
+     */
+    public CompletableFuture<Void> runAsync(
+            RetryableProcess.Procedure procedure, ScheduledExecutorService executor) {
+        return procedure(procedure).performAsync(executor);
+    }
+
+    /**
+     * Runs the retryable process asynchronously, and handle the retry handler.
+     *
+     * @param procedure the retryable process.
+     * @param executor the executor that runs the tries and waits the intervals.
+     * @return the future of the completion.
+     */
+    public CompletableFuture<Void> runAsync(
+            RetryableProcess.NonContextualProcedure procedure, ScheduledExecutorService executor) {
+        return procedure(procedure).performAsync(executor);
     }
 
 }
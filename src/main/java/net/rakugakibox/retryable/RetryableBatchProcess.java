@@ -0,0 +1,27 @@
+package net.rakugakibox.retryable;
+
+import java.util.List;
+
+/**
+ * The retryable process of a batch.
+ * Each time processes the inputs that have not succeeded yet, and reports the result of each input.
+ *
+ * @param <I> the input type.
+ * @param <O> the output type.
+ */
+@FunctionalInterface
+public interface RetryableBatchProcess<I, O> {
+
+    /**
+     * Performs the process of the inputs.
+     * An input that is neither succeeded nor failed is regarded as failed.
+     * If an exception is thrown, the inputs that are not reported fail with it.
+     *
+     * @param inputs the inputs that have not succeeded yet.
+     * @param reporter the reporter that the outcome of each input is reported to.
+     * @param context the context.
+     * @throws Exception if an error occurs.
+     */
+    void perform(List<I> inputs, BatchReporter<I, O> reporter, RetryableContext context) throws Exception;
+
+}
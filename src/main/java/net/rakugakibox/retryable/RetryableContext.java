@@ -1,30 +1,148 @@
 package net.rakugakibox.retryable;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.unmodifiableList;
 import java.util.List;
 import java.util.Optional;
 import lombok.NonNull;
+import static net.rakugakibox.retryable.Durations.requireNonNegative;
 
 /**
  * The context that has the running information.
+ * <p>
+ * A process that does not use the context is given a shared context that cannot be modified on the first time,
+ * so the success on the first time allocates nothing.
+ * <p>
+ * The context is not thread-safe. A time that runs on another thread, e.g. with a timeout or hedging,
+ * is given a snapshot that cannot be modified, so an abandoned time does not see the later times.
  */
 public class RetryableContext {
 
+    /**
+     * The context of the first time that is shared by the processes that do not use the context.
+     */
+    private static final RetryableContext FIRST = new First();
+
+    /**
+     * The time that the first time started, in nanoseconds.
+     */
+    private final long startNanos;
+
+    /**
+     * The time that the current time started, in nanoseconds.
+     */
+    private long tryStartNanos;
+
     /**
      * The number of times.
      */
     private long times = 0;
 
     /**
-     * The exceptions that occurred.
+     * The retention of the exceptions.
+     */
+    private final ExceptionHistory history;
+
+    /**
+     * Whether {@link CannotRetryException} of this context captures its stack trace.
+     */
+    private final boolean stackTraces;
+
+    /**
+     * The number of the exceptions that occurred.
+     */
+    private long exceptionCount = 0;
+
+    /**
+     * The retained exceptions that occurred, or {@code null} until the first exception occurs.
      */
-    private final List<Exception> exceptions = new ArrayList<>();
+    private List<Exception> exceptions;
+
+    /**
+     * The interval before the next time.
+     */
+    private Duration interval = Duration.ZERO;
+
+    /**
+     * The interval before the current time.
+     */
+    private Duration previousInterval = Duration.ZERO;
 
     /**
      * Constructs an instance.
      */
     RetryableContext() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * Constructs an instance.
+     *
+     * @param startNanos the time that the first time started, in nanoseconds.
+     */
+    RetryableContext(long startNanos) {
+        this(startNanos, ExceptionHistory.all());
+    }
+
+    /**
+     * Constructs an instance.
+     *
+     * @param startNanos the time that the first time started, in nanoseconds.
+     * @param history the retention of the exceptions.
+     */
+    RetryableContext(long startNanos, ExceptionHistory history) {
+        this(startNanos, history, true);
+    }
+
+    /**
+     * Constructs an instance.
+     *
+     * @param startNanos the time that the first time started, in nanoseconds.
+     * @param history the retention of the exceptions.
+     * @param stackTraces whether {@link CannotRetryException} of this context captures its stack trace.
+     */
+    RetryableContext(long startNanos, @NonNull ExceptionHistory history, boolean stackTraces) {
+        this.startNanos = startNanos;
+        this.tryStartNanos = startNanos;
+        this.history = history;
+        this.stackTraces = stackTraces;
+    }
+
+    /**
+     * Constructs a copy of the context.
+     *
+     * @param context the context.
+     */
+    private RetryableContext(RetryableContext context) {
+        this.startNanos = context.startNanos;
+        this.tryStartNanos = context.tryStartNanos;
+        this.times = context.times;
+        this.history = context.history;
+        this.stackTraces = context.stackTraces;
+        this.exceptionCount = context.exceptionCount;
+        this.exceptions = context.exceptions == null ? null : new ArrayList<>(context.exceptions);
+        this.interval = context.interval;
+        this.previousInterval = context.previousInterval;
+    }
+
+    /**
+     * Returns the context of the first time that is shared by the processes that do not use the context.
+     *
+     * @return the context of the first time.
+     */
+    static RetryableContext first() {
+        return FIRST;
+    }
+
+    /**
+     * Returns a snapshot of this context that cannot be modified.
+     *
+     * @return the snapshot.
+     */
+    RetryableContext snapshot() {
+        return new Snapshot(this);
     }
 
     /**
@@ -33,10 +151,13 @@ public class RetryableContext {
      * @return this instance.
      */
     RetryableContext next() {
-        if (exceptions.size() != times) {
+        if (exceptionCount != times) {
             throw new IllegalStateException("The exception has not been stacked.");
         }
+        tryStartNanos = times == 0L ? startNanos : System.nanoTime();
         times++;
+        previousInterval = interval;
+        interval = Duration.ZERO;
         return this;
     }
 
@@ -47,10 +168,14 @@ public class RetryableContext {
      * @return this instance.
      */
     RetryableContext fail(@NonNull Exception cause) {
-        if (exceptions.size() != times - 1L) {
+        if (exceptionCount != times - 1L) {
             throw new IllegalStateException("The time is not advanced.");
         }
+        if (exceptions == null) {
+            exceptions = history.newExceptions();
+        }
         exceptions.add(cause);
+        exceptionCount++;
         return this;
     }
 
@@ -63,13 +188,70 @@ public class RetryableContext {
         return times;
     }
 
+    /**
+     * Returns the elapsed time since the first time started.
+     *
+     * @return the elapsed time.
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the time that the first time started, in nanoseconds.
+     *
+     * @return the time in nanoseconds.
+     */
+    long startNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Returns the time that the current time started, in nanoseconds.
+     *
+     * @return the time in nanoseconds.
+     */
+    long tryStartNanos() {
+        return tryStartNanos;
+    }
+
     /**
      * Returns the exceptions that occurred.
+     * With a bounded {@link ExceptionHistory}, only the retained exceptions are returned.
      *
      * @return the exceptions that occurred.
      */
     public List<Exception> exceptions() {
-        return unmodifiableList(exceptions);
+        return exceptions == null ? emptyList() : unmodifiableList(exceptions);
+    }
+
+    /**
+     * Returns the number of the exceptions that occurred, including the ones that are not retained.
+     *
+     * @return the number of the exceptions that occurred.
+     */
+    public long exceptionCount() {
+        return exceptionCount;
+    }
+
+    /**
+     * Returns whether {@link CannotRetryException} of this context captures its stack trace.
+     *
+     * @return {@code true} if captures the stack trace.
+     */
+    boolean stackTrace() {
+        return stackTraces;
+    }
+
+    /**
+     * Attaches the retained exceptions to the exception as suppressed exceptions, if the retention does.
+     *
+     * @param exception the exception.
+     * @return the exception.
+     */
+    CannotRetryException attachTo(CannotRetryException exception) {
+        history.attach(exception, exceptions == null ? emptyList() : exceptions);
+        return exception;
     }
 
     /**
@@ -79,11 +261,54 @@ public class RetryableContext {
      * @return the last exception that occurred.
      */
     public Optional<Exception> exception() {
-        return exceptions.isEmpty()
+        return exceptions == null || exceptions.isEmpty()
                 ? Optional.empty()
                 : Optional.of(exceptions.get(exceptions.size() - 1));
     }
 
+    /**
+     * Returns the result that the last time returned and was rejected by {@link Retryable#retryIf}.
+     * Returns an empty if the last time threw an exception, or the rejected result is {@code null}.
+     *
+     * @return the rejected result.
+     */
+    public Optional<Object> rejectedResult() {
+        return exception()
+                .filter(RejectedResultException.class::isInstance)
+                .map(exception -> ((RejectedResultException) exception).result());
+    }
+
+    /**
+     * Adds the interval before the next time.
+     * The processor waits for the total of the added intervals before retrying.
+     *
+     * @param interval the interval.
+     * @return this instance.
+     */
+    public RetryableContext interval(@NonNull Duration interval) {
+        this.interval = this.interval.plus(requireNonNegative(interval, "The interval is negative."));
+        return this;
+    }
+
+    /**
+     * Returns the interval before the next time.
+     *
+     * @return the interval before the next time.
+     */
+    public Duration interval() {
+        return interval;
+    }
+
+    /**
+     * Returns the interval before the current time.
+     * The first time, returns zero.
+     *
+     * @return the interval before the current time.
+     */
+    public Duration previousInterval() {
+        return previousInterval;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() {
@@ -91,9 +316,88 @@ public class RetryableContext {
                 + "("
                 + times
                 + " times, "
-                + exceptions.size()
+                + exceptionCount
                 + " exceptions"
                 + ")";
     }
 
+    /**
+     * The context of the first time that is shared by the processes that do not use the context.
+     */
+    private static final class First extends RetryableContext {
+
+        /**
+         * Constructs an instance.
+         */
+        private First() {
+            super(0L);
+            super.next();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        RetryableContext snapshot() {
+            return this;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        RetryableContext next() {
+            throw new UnsupportedOperationException("The context of the first time cannot be modified.");
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        RetryableContext fail(Exception cause) {
+            throw new UnsupportedOperationException("The context of the first time cannot be modified.");
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public RetryableContext interval(Duration interval) {
+            throw new UnsupportedOperationException("The context of the first time cannot be modified.");
+        }
+
+    }
+
+    /**
+     * The snapshot of a context that is given to a time that runs on another thread.
+     */
+    private static final class Snapshot extends RetryableContext {
+
+        /**
+         * Constructs an instance.
+         *
+         * @param context the context.
+         */
+        private Snapshot(RetryableContext context) {
+            super(context);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        RetryableContext snapshot() {
+            return this;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        RetryableContext next() {
+            throw new UnsupportedOperationException("The snapshot of the context cannot be modified.");
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        RetryableContext fail(Exception cause) {
+            throw new UnsupportedOperationException("The snapshot of the context cannot be modified.");
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public RetryableContext interval(Duration interval) {
+            throw new UnsupportedOperationException("The snapshot of the context cannot be modified.");
+        }
+
+    }
+
 }
@@ -0,0 +1,21 @@
+package net.rakugakibox.retryable;
+
+/**
+ * The retryable process of an element, that maps it to a result.
+ *
+ * @param <I> the element type.
+ * @param <O> the result type.
+ */
+@FunctionalInterface
+public interface RetryableMapper<I, O> {
+
+    /**
+     * Maps the element.
+     *
+     * @param element the element.
+     * @return the result.
+     * @throws Exception if an error occurs.
+     */
+    O map(I element) throws Exception;
+
+}
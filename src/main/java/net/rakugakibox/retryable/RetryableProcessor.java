@@ -1,5 +1,14 @@
 package net.rakugakibox.retryable;
 
+import java.time.Duration;
+import java.util.Collection;
+import static java.util.Collections.unmodifiableList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
@@ -12,24 +21,29 @@ import lombok.extern.slf4j.Slf4j;
 public class RetryableProcessor<T> {
 
     /**
-     * The retryable process.
+     * The listener that does nothing, which means no listeners.
      */
-    private final RetryableProcess<T> process;
+    static final RetryListener NO_LISTENER = RetryListener.nop();
+
+    /**
+     * The policy.
+     */
+    private final RetryPolicy policy;
 
     /**
-     * The retry handler.
+     * The retryable process.
      */
-    private final RetryHandler handler;
+    private final RetryableProcess<T> process;
 
     /**
      * Constructs an instance.
      *
+     * @param policy the policy.
      * @param process the retryable process.
-     * @param handler the retry handler.
      */
-    RetryableProcessor(@NonNull RetryableProcess<T> process, @NonNull RetryHandler handler) {
+    RetryableProcessor(@NonNull RetryPolicy policy, @NonNull RetryableProcess<T> process) {
+        this.policy = policy;
         this.process = process;
-        this.handler = handler;
     }
 
     /**
@@ -39,24 +53,356 @@ public class RetryableProcessor<T> {
      * @throws CannotRetryException if cannot retry.
      */
     public T perform() throws CannotRetryException {
-        RetryableContext context = new RetryableContext();
+        return perform(policy, process);
+    }
+
+    /**
+     * Performs the retryable process, and handle the retry handler.
+     * Without listeners, the first time of a process that does not use the context allocates nothing unless it fails.
+     *
+     * @param <T> the result type.
+     * @param policy the policy.
+     * @param process the retryable process.
+     * @return the result.
+     * @throws CannotRetryException if cannot retry.
+     */
+    static <T> T perform(@NonNull RetryPolicy policy, @NonNull RetryableProcess<T> process)
+            throws CannotRetryException {
+        long start = System.nanoTime();
+        RetryableProcess<T> applied = policy.apply(process);
+        if (policy.listener() != NO_LISTENER || contextual(applied)) {
+            RetryableContext context = new RetryableContext(start, policy.history(), policy.stackTraces());
+            return perform(policy, applied, context, null);
+        }
+        T result;
         try {
+            if (log.isDebugEnabled()) {
+                log.debug("Performs the process: process={}, context={}", applied, RetryableContext.first());
+            }
+            result = applied.perform(RetryableContext.first());
+        } catch (Exception exc) {
+            RetryableContext context = new RetryableContext(start, policy.history(), policy.stackTraces()).next();
+            return perform(policy, applied, context, exc);
+        }
+        if (policy.rejection().rejects(result)) {
+            RetryableContext context = new RetryableContext(start, policy.history(), policy.stackTraces()).next();
+            return perform(policy, applied, context, ResultRejection.reject(result, context));
+        }
+        return result;
+    }
+
+    /**
+     * Performs the retryable process, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param policy the policy.
+     * @param process the retryable process that the policy is applied to.
+     * @param context the context.
+     * @param failure the exception of the current time, or {@code null} if no times have been performed.
+     * @return the result.
+     * @throws CannotRetryException if cannot retry.
+     */
+    private static <T> T perform(
+            RetryPolicy policy, RetryableProcess<T> process, RetryableContext context, Exception failure)
+            throws CannotRetryException {
+        RetryHandler handler = policy.handler();
+        RetryListener listener = policy.listener();
+        try {
+            Exception exc = failure;
             while (true) {
-                try {
-                    context.next();
-                    log.debug("Performs the process: process={}, context={}", process, context);
-                    return process.perform(context);
-                } catch (Exception exc) {
+                if (exc != null) {
                     context.fail(exc);
-                    log.debug("Process failed. Handles the handler: "
-                            + "exception={}, handler={}, context={}", exc, handler, context);
+                    listener.onFailure(context);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Process failed. Handles the handler: "
+                                + "exception={}, handler={}, context={}", exc, handler, context);
+                    }
                     handler.handle(context);
+                    sleep(context);
+                }
+                context.next();
+                listener.beforeTry(context);
+                T result;
+                try {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Performs the process: process={}, context={}", process, context);
+                    }
+                    result = process.perform(context);
+                } catch (Exception nextExc) {
+                    exc = nextExc;
+                    continue;
                 }
+                if (policy.rejection().rejects(result)) {
+                    exc = ResultRejection.reject(result, context);
+                    continue;
+                }
+                listener.onSuccess(context);
+                return result;
             }
         } catch (CannotRetryException exc) {
-            log.debug("CannotRetryException occurred: exception={}, context={}", exc, context);
+            if (log.isDebugEnabled()) {
+                log.debug("CannotRetryException occurred: exception={}, context={}", exc, context);
+            }
+            context.attachTo(exc);
+            listener.onCannotRetry(context, exc);
+            throw exc;
+        } catch (Throwable exc) {
+            if (log.isDebugEnabled()) {
+                log.debug("The process ended abnormally: exception={}, context={}", exc, context);
+            }
+            listener.onError(context, exc);
             throw exc;
         }
     }
 
+    /**
+     * Performs the retryable process of a batch, and handle the retry handler.
+     * Each time processes only the inputs that have not succeeded yet,
+     * and the handler and the interval apply once per time, not per input.
+     * A misreported input ends the batch with {@link IllegalArgumentException} without retrying.
+     *
+     * @param <I> the input type.
+     * @param <O> the output type.
+     * @param policy the policy.
+     * @param inputs the inputs.
+     * @param process the retryable process of a batch.
+     * @return the result, that has the exceptions of the failed inputs if cannot retry.
+     */
+    static <I, O> BatchResult<I, O> performBatch(
+            @NonNull RetryPolicy policy, @NonNull Collection<I> inputs, @NonNull RetryableBatchProcess<I, O> process) {
+        BatchResult<I, O> result = new BatchResult<>(inputs);
+        if (inputs.isEmpty()) {
+            return result;
+        }
+        BatchReporter<I, O> reporter = new BatchReporter<>(result);
+        RetryHandler handler = policy.handler();
+        RetryListener listener = policy.listener();
+        RetryableContext context = new RetryableContext(System.nanoTime(), policy.history(), policy.stackTraces());
+        try {
+            while (true) {
+                List<I> pending = result.pending();
+                context.next();
+                listener.beforeTry(context);
+                result.clear(pending);
+                Exception failure;
+                try {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Performs the batch process: process={}, inputs={}, context={}",
+                                process, pending.size(), context);
+                    }
+                    process.perform(unmodifiableList(pending), reporter, context);
+                    failure = result.complete(pending, () -> new IllegalStateException("The input was not processed."));
+                } catch (Exception exc) {
+                    failure = result.complete(pending, () -> exc);
+                }
+                if (reporter.misreported() != null) {
+                    throw reporter.misreported();
+                }
+                if (failure == null) {
+                    listener.onSuccess(context);
+                    return result;
+                }
+                context.fail(failure);
+                listener.onFailure(context);
+                if (log.isDebugEnabled()) {
+                    log.debug("Batch process failed. Handles the handler: "
+                            + "result={}, handler={}, context={}", result, handler, context);
+                }
+                handler.handle(context);
+                sleep(context);
+            }
+        } catch (CannotRetryException exc) {
+            if (log.isDebugEnabled()) {
+                log.debug("CannotRetryException occurred: exception={}, result={}, context={}", exc, result, context);
+            }
+            context.attachTo(exc);
+            listener.onCannotRetry(context, exc);
+            result.cannotRetry(exc);
+            return result;
+        } catch (Throwable exc) {
+            if (log.isDebugEnabled()) {
+                log.debug("The batch process ended abnormally: exception={}, result={}, context={}",
+                        exc, result, context);
+            }
+            listener.onError(context, exc);
+            throw exc;
+        }
+    }
+
+    /**
+     * Returns whether the process uses the context.
+     *
+     * @param process the retryable process.
+     * @return {@code true} if the process uses the context.
+     */
+    private static boolean contextual(RetryableProcess<?> process) {
+        return !(process instanceof RetryableProcess.NonContextualFunction)
+                && !(process instanceof RetryableProcess.NonContextualProcedure);
+    }
+
+    /**
+     * Sleeps for the interval before the next time.
+     * An interrupted thread stops retrying even without an interval, and the interrupt status is kept.
+     *
+     * @param context the context.
+     * @throws CannotRetryException if a sleep was interrupted.
+     */
+    private static void sleep(RetryableContext context) throws CannotRetryException {
+        Duration interval = context.interval();
+        try {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            if (interval.isZero()) {
+                return;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Sleeps: interval={}", interval);
+            }
+            NANOSECONDS.sleep(interval.toNanos());
+        } catch (InterruptedException exc) {
+            if (log.isDebugEnabled()) {
+                log.debug("A sleep was interrupted: exception={}, interval={}", exc, interval);
+            }
+            Thread.currentThread().interrupt();
+            throw new CannotRetryException("A sleep was interrupted", exc, context);
+        }
+    }
+
+    /**
+     * Performs the retryable process on the executor, and handle the retry handler.
+     * Unlike {@link #performAsync(ScheduledExecutorService)}, the whole process runs on a thread of the executor,
+     * and sleeps for the intervals, e.g. on the virtual threads.
+     *
+     * @param executor the executor that runs the process.
+     * @return the future of the result.
+     */
+    public CompletableFuture<T> performOn(@NonNull Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(perform());
+                } catch (Throwable exc) {
+                    future.completeExceptionally(exc);
+                }
+            });
+        } catch (RuntimeException exc) {
+            future.completeExceptionally(exc);
+        }
+        return future;
+    }
+
+    /**
+     * Performs the retryable process on a new virtual thread, and handle the retry handler.
+     * The virtual threads are available on Java 21 or later.
+     * A virtual thread unmounts from its carrier while sleeping for an interval,
+     * so many processes can wait for the intervals concurrently.
+     *
+     * @return the future of the result.
+     * @throws UnsupportedOperationException if the virtual threads are not available.
+     */
+    public CompletableFuture<T> performOnVirtualThread() throws UnsupportedOperationException {
+        return performOn(VirtualThreads.executor());
+    }
+
+    /**
+     * Performs the retryable process asynchronously, and handle the retry handler.
+     * Each time runs on the executor, and the intervals are scheduled on it instead of sleeping.
+     * With the timeout or the hedging, each time runs on their executor instead,
+     * and the executor only times out the times and launches the hedged attempts, so no threads wait for a time.
+     * No more times are scheduled once the returned future has been completed, e.g. cancelled.
+     *
+     * @param executor the executor that runs the tries and waits the intervals.
+     * @return the future of the result.
+     *      It completes exceptionally with {@link CannotRetryException} if cannot retry.
+     */
+    public CompletableFuture<T> performAsync(@NonNull ScheduledExecutorService executor) {
+        if (policy.detached()) {
+            return StageProcessor.perform(policy, policy.apply(process, executor), executor);
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        RetryableContext context = new RetryableContext(System.nanoTime(), policy.history(), policy.stackTraces());
+        RetryableProcess<T> applied = policy.apply(process);
+        try {
+            executor.execute(() -> performAsync(applied, executor, context, future));
+        } catch (RuntimeException exc) {
+            future.completeExceptionally(exc);
+        }
+        return future;
+    }
+
+    /**
+     * Performs a time of the retryable process asynchronously.
+     *
+     * @param process the retryable process that the policy is applied to.
+     * @param executor the executor that runs the tries and waits the intervals.
+     * @param context the context.
+     * @param future the future of the result.
+     */
+    private void performAsync(
+            RetryableProcess<T> process, ScheduledExecutorService executor,
+            RetryableContext context, CompletableFuture<T> future) {
+        RetryHandler handler = policy.handler();
+        RetryListener listener = policy.listener();
+        if (future.isDone()) {
+            if (log.isDebugEnabled()) {
+                log.debug("The future has been completed: future={}, context={}", future, context);
+            }
+            listener.onError(context, new CancellationException("The future has been completed."));
+            return;
+        }
+        try {
+            context.next();
+            listener.beforeTry(context);
+            T result = null;
+            Exception failure = null;
+            try {
+                if (log.isDebugEnabled()) {
+                    log.debug("Performs the process asynchronously: process={}, context={}", process, context);
+                }
+                result = process.perform(context);
+            } catch (Exception exc) {
+                failure = exc;
+            }
+            if (failure == null && policy.rejection().rejects(result)) {
+                failure = ResultRejection.reject(result, context);
+            }
+            if (failure != null) {
+                context.fail(failure);
+                listener.onFailure(context);
+                if (log.isDebugEnabled()) {
+                    log.debug("Process failed. Handles the handler: "
+                            + "exception={}, handler={}, context={}", failure, handler, context);
+                }
+                handler.handle(context);
+                Duration interval = context.interval();
+                if (log.isDebugEnabled()) {
+                    log.debug("Schedules the next time: interval={}, context={}", interval, context);
+                }
+                executor.schedule(
+                        () -> performAsync(process, executor, context, future), interval.toNanos(), NANOSECONDS);
+                return;
+            }
+            listener.onSuccess(context);
+            future.complete(result);
+        } catch (CannotRetryException exc) {
+            if (log.isDebugEnabled()) {
+                log.debug("CannotRetryException occurred: exception={}, context={}", exc, context);
+            }
+            context.attachTo(exc);
+            listener.onCannotRetry(context, exc);
+            future.completeExceptionally(exc);
+        } catch (Throwable exc) {
+            if (log.isDebugEnabled()) {
+                log.debug("The process ended abnormally: exception={}, context={}", exc, context);
+            }
+            try {
+                listener.onError(context, exc);
+            } finally {
+                future.completeExceptionally(exc);
+            }
+        }
+    }
+
 }
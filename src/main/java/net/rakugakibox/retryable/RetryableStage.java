@@ -0,0 +1,23 @@
+package net.rakugakibox.retryable;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * The retryable asynchronous process, that returns a stage of the result.
+ * Each time calls it again, e.g. sends the request again, instead of blocking a thread.
+ *
+ * @param <T> the result type.
+ */
+@FunctionalInterface
+public interface RetryableStage<T> {
+
+    /**
+     * Starts the process.
+     *
+     * @param context the context.
+     * @return the stage of the result.
+     * @throws Exception if an error occurs on starting.
+     */
+    CompletionStage<T> perform(RetryableContext context) throws Exception;
+
+}
@@ -0,0 +1,106 @@
+package net.rakugakibox.retryable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The coalescing of the retryable processes by the keys, that is shared across the callers.
+ * While a process of a key is in progress, the concurrent callers of the same key don't start their own,
+ * but wait for it and receive its result or {@link CannotRetryException}.
+ * So a failing backend receives one retry loop per key, instead of one per caller.
+ * Each waiting caller receives its own {@link CannotRetryException}, whose cause is the exception of the process.
+ * <p>
+ * A key is forgotten as soon as its process completes, i.e. the results are not cached.
+ * Use it with {@link Retryable#perform(SingleFlight, Object, RetryableProcess)}.
+ * It's thread-safe.
+ *
+ * @param <K> the key type.
+ * @param <T> the result type.
+ */
+@Slf4j
+public class SingleFlight<K, T> {
+
+    /**
+     * The processes in progress by the keys.
+     */
+    private final ConcurrentMap<K, CompletableFuture<T>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Performs the process of the key, or waits for the one in progress.
+     *
+     * @param key the key.
+     * @param process the process, that is performed only if no processes of the key are in progress.
+     * @return the result.
+     * @throws CannotRetryException if cannot retry, or a wait was interrupted.
+     */
+    T perform(@NonNull K key, Supplier<T> process) throws CannotRetryException {
+        CompletableFuture<T> flight = new CompletableFuture<>();
+        CompletableFuture<T> current = flights.putIfAbsent(key, flight);
+        if (current != null) {
+            log.debug("Waits for the process in progress: key={}", key);
+            return await(current);
+        }
+        try {
+            T result = process.get();
+            flight.complete(result);
+            return result;
+        } catch (Throwable exc) {
+            flight.completeExceptionally(exc);
+            throw exc;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Returns the number of the keys in progress.
+     *
+     * @return the number of the keys.
+     */
+    public int inProgress() {
+        return flights.size();
+    }
+
+    /**
+     * Waits for the process in progress.
+     *
+     * @param flight the future of the process.
+     * @return the result.
+     * @throws CannotRetryException if cannot retry, or a wait was interrupted.
+     */
+    private T await(CompletableFuture<T> flight) throws CannotRetryException {
+        try {
+            return flight.get();
+        } catch (InterruptedException exc) {
+            log.debug("A wait was interrupted: exception={}", exc);
+            Thread.currentThread().interrupt();
+            throw new CannotRetryException("The wait for the process in progress was interrupted", exc, null);
+        } catch (ExecutionException exc) {
+            Throwable cause = exc.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            if (cause instanceof CannotRetryException) {
+                CannotRetryException leader = (CannotRetryException) cause;
+                throw new CannotRetryException(leader.getMessage(), leader, leader.context());
+            }
+            throw new CannotRetryException("The process in progress ended abnormally", cause, null);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return SingleFlight.class.getSimpleName()
+                + "("
+                + inProgress()
+                + " in progress"
+                + ")";
+    }
+
+}
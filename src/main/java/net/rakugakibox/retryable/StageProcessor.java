@@ -0,0 +1,199 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The processor of a retryable asynchronous process.
+ * No threads are blocked: the stage completes the time, and the next time is scheduled after the interval.
+ *
+ * @param <T> the result type.
+ */
+@Slf4j
+final class StageProcessor<T> {
+
+    /**
+     * The retryable asynchronous process.
+     */
+    private final RetryableStage<T> process;
+
+    /**
+     * The retry handler.
+     */
+    private final RetryHandler handler;
+
+    /**
+     * The retry listener.
+     */
+    private final RetryListener listener;
+
+    /**
+     * The rejection of the results.
+     */
+    private final ResultRejection rejection;
+
+    /**
+     * The scheduler that waits the intervals.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * The context.
+     */
+    private final RetryableContext context;
+
+    /**
+     * The future of the result.
+     */
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    /**
+     * Constructs an instance.
+     *
+     * @param policy the policy.
+     * @param process the retryable asynchronous process.
+     * @param scheduler the scheduler that waits the intervals.
+     */
+    private StageProcessor(RetryPolicy policy, RetryableStage<T> process, ScheduledExecutorService scheduler) {
+        this.process = process;
+        this.handler = policy.handler();
+        this.listener = policy.listener();
+        this.rejection = policy.rejection();
+        this.scheduler = scheduler;
+        this.context = new RetryableContext(System.nanoTime(), policy.history(), policy.stackTraces());
+    }
+
+    /**
+     * Performs the retryable asynchronous process, and handle the retry handler.
+     *
+     * @param <T> the result type.
+     * @param policy the policy.
+     * @param process the retryable asynchronous process.
+     * @param scheduler the scheduler that waits the intervals.
+     * @return the future of the result.
+     */
+    static <T> CompletableFuture<T> perform(
+            RetryPolicy policy, RetryableStage<T> process, ScheduledExecutorService scheduler) {
+        StageProcessor<T> processor = new StageProcessor<>(policy, process, scheduler);
+        processor.perform();
+        return processor.future;
+    }
+
+    /**
+     * Performs a time.
+     */
+    private void perform() {
+        if (future.isDone()) {
+            if (log.isDebugEnabled()) {
+                log.debug("The future has been completed: future={}, context={}", future, context);
+            }
+            listener.onError(context, new CancellationException("The future has been completed."));
+            return;
+        }
+        try {
+            context.next();
+            listener.beforeTry(context);
+            CompletionStage<T> stage;
+            try {
+                if (log.isDebugEnabled()) {
+                    log.debug("Performs the stage: process={}, context={}", process, context);
+                }
+                stage = process.perform(context);
+            } catch (Exception exc) {
+                retry(exc);
+                return;
+            }
+            if (stage == null) {
+                throw new IllegalStateException("The stage is null.");
+            }
+            stage.whenComplete(this::complete);
+        } catch (CannotRetryException exc) {
+            cannotRetry(exc);
+        } catch (Throwable exc) {
+            error(exc);
+        }
+    }
+
+    /**
+     * Completes a time.
+     *
+     * @param result the result.
+     * @param exception the exception, or {@code null} if succeeded.
+     */
+    private void complete(T result, Throwable exception) {
+        try {
+            Throwable cause = AttemptTimeout.unwrap(exception);
+            if (cause == null && rejection.rejects(result)) {
+                retry(ResultRejection.reject(result, context));
+            } else if (cause == null) {
+                listener.onSuccess(context);
+                future.complete(result);
+            } else if (cause instanceof Exception) {
+                retry((Exception) cause);
+            } else {
+                error(cause);
+            }
+        } catch (CannotRetryException exc) {
+            cannotRetry(exc);
+        } catch (Throwable exc) {
+            error(exc);
+        }
+    }
+
+    /**
+     * Handles the failure of a time, and schedules the next time.
+     *
+     * @param exception the exception.
+     * @throws CannotRetryException if cannot retry.
+     */
+    private void retry(Exception exception) throws CannotRetryException {
+        context.fail(exception);
+        listener.onFailure(context);
+        if (log.isDebugEnabled()) {
+            log.debug("Stage failed. Handles the handler: "
+                    + "exception={}, handler={}, context={}", exception, handler, context);
+        }
+        handler.handle(context);
+        Duration interval = context.interval();
+        if (log.isDebugEnabled()) {
+            log.debug("Schedules the next time: interval={}, context={}", interval, context);
+        }
+        scheduler.schedule(() -> perform(), interval.toNanos(), NANOSECONDS);
+    }
+
+    /**
+     * Completes the future when cannot retry.
+     *
+     * @param exception the exception.
+     */
+    private void cannotRetry(CannotRetryException exception) {
+        if (log.isDebugEnabled()) {
+            log.debug("CannotRetryException occurred: exception={}, context={}", exception, context);
+        }
+        context.attachTo(exception);
+        listener.onCannotRetry(context, exception);
+        future.completeExceptionally(exception);
+    }
+
+    /**
+     * Completes the future when the process ends with a throwable other than {@link CannotRetryException}.
+     *
+     * @param exception the throwable.
+     */
+    private void error(Throwable exception) {
+        if (log.isDebugEnabled()) {
+            log.debug("The stage ended abnormally: exception={}, context={}", exception, context);
+        }
+        try {
+            listener.onError(context, exception);
+        } finally {
+            future.completeExceptionally(exception);
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package net.rakugakibox.retryable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The utilities of the virtual threads of Java 21 or later.
+ * They're looked up at runtime, so this library still runs on Java 8.
+ * <p>
+ * The retry loop blocks only with {@link java.util.concurrent.TimeUnit#sleep(long)} and does not hold monitors,
+ * so a virtual thread unmounts from its carrier while sleeping for an interval.
+ */
+@Slf4j
+final class VirtualThreads {
+
+    /**
+     * The handle of {@code Thread.startVirtualThread(Runnable)}, or {@code null} if not available.
+     */
+    private static final MethodHandle START = lookup();
+
+    /**
+     * The executor that runs each task on a new virtual thread.
+     */
+    private static final Executor EXECUTOR = VirtualThreads::start;
+
+    /**
+     * Constructs an instance.
+     */
+    private VirtualThreads() {
+    }
+
+    /**
+     * Returns whether the virtual threads are available.
+     *
+     * @return {@code true} if the virtual threads are available.
+     */
+    static boolean available() {
+        return START != null;
+    }
+
+    /**
+     * Returns the executor that runs each task on a new virtual thread.
+     *
+     * @return the executor.
+     * @throws UnsupportedOperationException if the virtual threads are not available.
+     */
+    static Executor executor() throws UnsupportedOperationException {
+        if (!available()) {
+            throw new UnsupportedOperationException("The virtual threads are not available.");
+        }
+        return EXECUTOR;
+    }
+
+    /**
+     * Starts the task on a new virtual thread.
+     *
+     * @param task the task.
+     */
+    private static void start(Runnable task) {
+        try {
+            START.invoke(task);
+        } catch (RuntimeException | Error exc) {
+            throw exc;
+        } catch (Throwable exc) {
+            throw new RejectedExecutionException(exc);
+        }
+    }
+
+    /**
+     * Looks up {@code Thread.startVirtualThread(Runnable)}.
+     *
+     * @return the handle, or {@code null} if not available.
+     */
+    private static MethodHandle lookup() {
+        try {
+            return MethodHandles.publicLookup().findStatic(
+                    Thread.class, "startVirtualThread", MethodType.methodType(Thread.class, Runnable.class));
+        } catch (NoSuchMethodException | IllegalAccessException exc) {
+            log.debug("The virtual threads are not available: exception={}", exc.toString());
+            return null;
+        }
+    }
+
+}
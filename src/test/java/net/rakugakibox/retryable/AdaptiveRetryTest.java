@@ -0,0 +1,93 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+/**
+ * The test of {@link AdaptiveRetry}.
+ */
+public class AdaptiveRetryTest {
+
+    /**
+     * Tests for {@link AdaptiveRetry#handle(RetryableContext)}.
+     */
+    @Test
+    public void handle_() {
+        AdaptiveRetry adaptive = new AdaptiveRetry(3L, Duration.ofMillis(10L), Duration.ofSeconds(1L));
+        RetryableContext context = new RetryableContext().next().fail(new Exception("the cause message."));
+        adaptive.handle(context);
+        assertThat(context.interval())
+                .isEqualTo(Duration.ofMillis(10L));
+        context.next().fail(new Exception("the cause message."));
+        adaptive.handle(context);
+        assertThat(context.interval())
+                .isEqualTo(Duration.ofMillis(20L));
+    }
+
+    /**
+     * Tests for {@link AdaptiveRetry#onFailure(RetryableContext)}.
+     */
+    @Test
+    public void onFailure_sustained() {
+        AdaptiveRetry adaptive = new AdaptiveRetry(3L, Duration.ofMillis(10L), Duration.ofSeconds(1L), 0.5);
+        RetryableContext context = new RetryableContext().next().fail(new Exception("the cause message."));
+        adaptive.onFailure(context);
+        adaptive.onFailure(context);
+        assertThat(adaptive.allowedRetries())
+                .isEqualTo(1L);
+        adaptive.handle(context);
+        assertThat(context.interval())
+                .isEqualTo(Duration.ofMillis(40L));
+        for (int i = 0; i < 8; i++) {
+            adaptive.onFailure(context);
+        }
+        assertThat(adaptive.failureRate())
+                .isGreaterThan(0.99);
+        assertThat(adaptive.allowedRetries())
+                .isEqualTo(0L);
+        RetryableContext other = new RetryableContext().next().fail(new Exception("the cause message."));
+        assertThatThrownBy(() -> adaptive.handle(other))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The adaptive retry limit reached");
+        for (int i = 0; i < 10; i++) {
+            adaptive.onSuccess(context);
+        }
+        assertThat(adaptive.allowedRetries())
+                .isEqualTo(3L);
+    }
+
+    /**
+     * Tests for {@link Retryable#adaptive(AdaptiveRetry)}.
+     */
+    @Test
+    public void adaptive_() {
+        AdaptiveRetry adaptive = new AdaptiveRetry(2L, Duration.ZERO, Duration.ZERO);
+        AtomicInteger tries = new AtomicInteger();
+        String result = new Retryable().adaptive(adaptive).call(() -> {
+            if (tries.incrementAndGet() < 3) {
+                throw new Exception("the cause message.");
+            }
+            return "the result.";
+        });
+        assertThat(result)
+                .isEqualTo("the result.");
+        assertThat(adaptive.failureRate())
+                .isGreaterThan(0.0);
+        assertThat(adaptive.latency())
+                .isGreaterThanOrEqualTo(Duration.ZERO);
+    }
+
+    /**
+     * Tests for {@link AdaptiveRetry#AdaptiveRetry(long, Duration, Duration, double)}.
+     */
+    @Test
+    public void new_passOutOfRangeToAlpha() {
+        assertThatThrownBy(() -> new AdaptiveRetry(1L, Duration.ZERO, Duration.ZERO, 0.0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The weight is out of range.");
+    }
+
+}
@@ -0,0 +1,168 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test of {@link AttemptTimeout}.
+ */
+public class AttemptTimeoutTest {
+
+    /**
+     * The executor that runs the times.
+     */
+    private ExecutorService executor;
+
+    /**
+     * The scheduler.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Sets up the executors.
+     */
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Shuts down the executors.
+     */
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#performAsync(ScheduledExecutorService)}.
+     * The scheduler does not wait for the time.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void performAsync_() throws Exception {
+        CompletableFuture<String> future = new Retryable()
+                .retries(1L)
+                .timeout(Duration.ofSeconds(10L), executor)
+                .callAsync(() -> scheduler.submit(() -> "the result.").get(), scheduler);
+        assertThat(future.get())
+                .isEqualTo("the result.");
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#performAsync(ScheduledExecutorService)}.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void performAsync_exceeded() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(2);
+        CompletableFuture<Void> future = new Retryable()
+                .retries(1L)
+                .timeout(Duration.ofMillis(10L), executor)
+                .runAsync(() -> {
+                    try {
+                        new CountDownLatch(1).await();
+                    } catch (InterruptedException exc) {
+                        interrupted.countDown();
+                        throw exc;
+                    }
+                }, scheduler);
+        Throwable thrown = catchThrowable(future::join);
+        assertThat(thrown.getCause())
+                .isInstanceOf(CannotRetryException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(interrupted.await(5L, TimeUnit.SECONDS))
+                .isTrue();
+    }
+
+    /**
+     * Tests for {@link RetryPolicy#performStage(RetryableStage, ScheduledExecutorService)}.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void performStage_exceeded() throws Exception {
+        List<CompletableFuture<String>> stages = new CopyOnWriteArrayList<>();
+        CompletableFuture<String> future = new Retryable()
+                .retries(1L)
+                .timeout(Duration.ofMillis(10L), executor)
+                .performStage(context -> {
+                    CompletableFuture<String> stage = new CompletableFuture<>();
+                    stages.add(stage);
+                    return stage;
+                }, scheduler);
+        Throwable thrown = catchThrowable(future::join);
+        assertThat(thrown.getCause())
+                .isInstanceOf(CannotRetryException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(stages)
+                .hasSize(2)
+                .allMatch(CompletableFuture::isCancelled);
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#perform()}.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void perform_() throws Exception {
+        AtomicInteger tries = new AtomicInteger();
+        String result = new Retryable()
+                .retries(2L)
+                .timeout(Duration.ofMillis(50L), executor)
+                .call(context -> {
+                    if (tries.incrementAndGet() < 3) {
+                        new CountDownLatch(1).await();
+                    }
+                    return "the result: " + context.exceptions();
+                });
+        assertThat(result)
+                .startsWith("the result: [java.util.concurrent.TimeoutException: The time timed out: PT0.05S");
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#perform()}.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void perform_exceeded() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(2);
+        Retryable retryable = new Retryable()
+                .retries(1L)
+                .timeout(Duration.ofMillis(10L), executor);
+        assertThatThrownBy(() -> retryable.run(() -> {
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException exc) {
+                interrupted.countDown();
+                throw exc;
+            }
+        }))
+                .isInstanceOf(CannotRetryException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(interrupted.await(5L, TimeUnit.SECONDS))
+                .isTrue();
+    }
+
+}
@@ -0,0 +1,172 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.Optional;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+/**
+ * The test of {@link Backoff}.
+ */
+public class BackoffTest {
+
+    /**
+     * Tests for {@link Backoff#fixed(Duration)}.
+     */
+    @Test
+    public void fixed_() {
+        Backoff backoff = Backoff.fixed(Duration.ofMillis(100L));
+        assertThat(backoff.interval(failed(1)))
+                .isEqualTo(Duration.ofMillis(100L));
+        assertThat(backoff.interval(failed(3)))
+                .isEqualTo(Duration.ofMillis(100L));
+    }
+
+    /**
+     * Tests for {@link Backoff#fixed(Duration)}.
+     */
+    @Test
+    public void fixed_passNegative() {
+        assertThatThrownBy(() -> Backoff.fixed(Duration.ofMillis(-1L)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The interval is negative.");
+    }
+
+    /**
+     * Tests for {@link Backoff#exponential(Duration)}.
+     */
+    @Test
+    public void exponential_() {
+        Backoff backoff = Backoff.exponential(Duration.ofMillis(100L));
+        assertThat(backoff.interval(failed(1)))
+                .isEqualTo(Duration.ofMillis(100L));
+        assertThat(backoff.interval(failed(2)))
+                .isEqualTo(Duration.ofMillis(200L));
+        assertThat(backoff.interval(failed(4)))
+                .isEqualTo(Duration.ofMillis(800L));
+    }
+
+    /**
+     * Tests for {@link Backoff#exponential(Duration, double)}.
+     */
+    @Test
+    public void exponential_withMultiplier() {
+        Backoff backoff = Backoff.exponential(Duration.ofMillis(100L), 3.0);
+        assertThat(backoff.interval(failed(3)))
+                .isEqualTo(Duration.ofMillis(900L));
+    }
+
+    /**
+     * Tests for {@link Backoff#exponential(Duration, double)}.
+     */
+    @Test
+    public void exponential_passLessThanOneToMultiplier() {
+        assertThatThrownBy(() -> Backoff.exponential(Duration.ofMillis(100L), 0.5))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The multiplier is less than 1.");
+    }
+
+    /**
+     * Tests for {@link Backoff#max(Duration)}.
+     */
+    @Test
+    public void max_() {
+        Backoff backoff = Backoff.exponential(Duration.ofMillis(100L)).max(Duration.ofMillis(300L));
+        assertThat(backoff.interval(failed(2)))
+                .isEqualTo(Duration.ofMillis(200L));
+        assertThat(backoff.interval(failed(3)))
+                .isEqualTo(Duration.ofMillis(300L));
+        assertThat(backoff.interval(failed(100)))
+                .isEqualTo(Duration.ofMillis(300L));
+    }
+
+    /**
+     * Tests for {@link Backoff#withRetryAfter(java.util.function.Function, Duration, Duration)}.
+     */
+    @Test
+    public void withRetryAfter_() {
+        Backoff backoff = Backoff.fixed(Duration.ofMillis(100L)).withRetryAfter(exception -> {
+            String message = exception.getMessage();
+            return message.startsWith("retry after ")
+                    ? Optional.of(Duration.ofMillis(Long.parseLong(message.substring(12))))
+                    : Optional.empty();
+        }, Duration.ofMillis(10L), Duration.ofSeconds(1L));
+        assertThat(backoff.interval(failedWith("retry after 500")))
+                .isEqualTo(Duration.ofMillis(500L));
+        assertThat(backoff.interval(failedWith("retry after 1")))
+                .isEqualTo(Duration.ofMillis(10L));
+        assertThat(backoff.interval(failedWith("retry after 60000")))
+                .isEqualTo(Duration.ofSeconds(1L));
+        assertThat(backoff.interval(failedWith("the cause message.")))
+                .isEqualTo(Duration.ofMillis(100L));
+    }
+
+    /**
+     * Tests for {@link Backoff#withRetryAfter(java.util.function.Function, Duration, Duration)}.
+     */
+    @Test
+    public void withRetryAfter_passMinGreaterThanMax() {
+        assertThatThrownBy(() -> Backoff.fixed(Duration.ZERO)
+                .withRetryAfter(exception -> Optional.empty(), Duration.ofSeconds(2L), Duration.ofSeconds(1L)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Tests for {@link Backoff#fullJitter(Duration, Duration)}.
+     */
+    @Test
+    public void fullJitter_() {
+        Backoff backoff = Backoff.fullJitter(Duration.ofMillis(100L), Duration.ofMillis(300L));
+        for (int i = 0; i < 100; i++) {
+            assertThat(backoff.interval(failed(2)))
+                    .isGreaterThanOrEqualTo(Duration.ZERO)
+                    .isLessThanOrEqualTo(Duration.ofMillis(200L));
+            assertThat(backoff.interval(failed(10)))
+                    .isGreaterThanOrEqualTo(Duration.ZERO)
+                    .isLessThanOrEqualTo(Duration.ofMillis(300L));
+        }
+    }
+
+    /**
+     * Tests for {@link Backoff#decorrelatedJitter(Duration, Duration)}.
+     */
+    @Test
+    public void decorrelatedJitter_() {
+        Backoff backoff = Backoff.decorrelatedJitter(Duration.ofMillis(100L), Duration.ofMillis(1000L));
+        for (int i = 0; i < 100; i++) {
+            assertThat(backoff.interval(failed(1)))
+                    .isEqualTo(Duration.ofMillis(100L));
+            RetryableContext context = failed(1).interval(Duration.ofMillis(200L)).next();
+            context.fail(new Exception("the cause message."));
+            assertThat(backoff.interval(context))
+                    .isGreaterThanOrEqualTo(Duration.ofMillis(100L))
+                    .isLessThanOrEqualTo(Duration.ofMillis(600L));
+        }
+    }
+
+    /**
+     * Returns a context that failed once with the message.
+     *
+     * @param message the message of the exception.
+     * @return the context.
+     */
+    private static RetryableContext failedWith(String message) {
+        return new RetryableContext().next().fail(new Exception(message));
+    }
+
+    /**
+     * Returns a context that failed the times.
+     *
+     * @param times the number of times.
+     * @return the context.
+     */
+    private static RetryableContext failed(int times) {
+        RetryableContext context = new RetryableContext();
+        for (int i = 0; i < times; i++) {
+            context.next().fail(new Exception("the cause message."));
+        }
+        return context;
+    }
+
+}
@@ -0,0 +1,68 @@
+package net.rakugakibox.retryable;
+
+import static java.util.Arrays.asList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+/**
+ * The test of {@link BatchReporter}.
+ */
+public class BatchReporterTest {
+
+    /**
+     * Tests for {@link BatchReporter#succeed(Object, Object)}.
+     */
+    @Test
+    public void succeed_() {
+        BatchResult<String, String> result = new BatchResult<>(asList("a", "b"));
+        BatchReporter<String, String> reporter = new BatchReporter<>(result);
+        reporter.succeed("a", "A");
+        assertThat(result.outputs())
+                .containsOnlyKeys("a");
+        assertThat(reporter.misreported())
+                .isNull();
+    }
+
+    /**
+     * Tests for {@link BatchReporter#fail(Object, Exception)}.
+     */
+    @Test
+    public void fail_passUnknownInput() {
+        BatchResult<String, String> result = new BatchResult<>(asList("a", "b"));
+        BatchReporter<String, String> reporter = new BatchReporter<>(result);
+        assertThatThrownBy(() -> reporter.fail("c", new Exception("the cause message.")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The input is not of the batch: c");
+        assertThat(reporter.misreported())
+                .hasMessage("The input is not of the batch: c");
+        assertThat(result.exceptions())
+                .isEmpty();
+    }
+
+    /**
+     * Tests for {@link Retryable#performBatch(java.util.Collection, RetryableBatchProcess)}.
+     * A misreported input is not retried.
+     */
+    @Test
+    public void performBatch_misreport() {
+        AtomicInteger tries = new AtomicInteger();
+        assertThatThrownBy(() -> new Retryable()
+                .performBatch(asList("a", "b"), (List<String> inputs, BatchReporter<String, String> reporter,
+                        RetryableContext context) -> {
+                    tries.incrementAndGet();
+                    try {
+                        reporter.succeed("c", "C");
+                    } catch (IllegalArgumentException exc) {
+                        // The process swallows the exception, but the batch still ends.
+                    }
+                }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The input is not of the batch: c");
+        assertThat(tries.get())
+                .isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,115 @@
+package net.rakugakibox.retryable;
+
+import java.util.ArrayList;
+import static java.util.Arrays.asList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import org.junit.Test;
+
+/**
+ * The test of {@link BatchResult}.
+ */
+public class BatchResultTest {
+
+    /**
+     * Tests for {@link BatchResult#succeed(Object, Object)}.
+     */
+    @Test
+    public void succeed_afterFailure() {
+        BatchResult<String, String> result = new BatchResult<>(asList("a", "b", "a"));
+        result.fail("a", new Exception("the cause message."));
+        result.succeed("a", "A");
+        result.fail("a", new Exception("the cause message."));
+        assertThat(result.outputs())
+                .containsOnlyKeys("a");
+        assertThat(result.exceptions())
+                .isEmpty();
+        assertThat(result.pending())
+                .containsExactly("b");
+        assertThat(result)
+                .hasToString("BatchResult(2 inputs, 1 succeeded, 0 failed)");
+    }
+
+    /**
+     * Tests for {@link BatchResult#complete(java.util.List, java.util.function.Supplier)}.
+     */
+    @Test
+    public void complete_() {
+        BatchResult<String, String> result = new BatchResult<>(asList("a", "b", "c"));
+        result.succeed("a", "A");
+        result.fail("b", new Exception("the cause message."));
+        Exception unreported = new Exception("the unreported message.");
+        assertThat(result.complete(asList("a", "b", "c"), () -> unreported))
+                .hasMessage("the cause message.");
+        assertThat(result.exceptions().get("c"))
+                .isSameAs(unreported);
+        result.succeed("b", "B");
+        result.succeed("c", "C");
+        assertThat(result.complete(asList("b", "c"), () -> {
+            throw new IllegalStateException("Must not be created.");
+        }))
+                .isNull();
+    }
+
+    /**
+     * Tests for {@link Retryable#performBatch(java.util.Collection, RetryableBatchProcess)}.
+     */
+    @Test
+    public void performBatch_() {
+        List<List<Integer>> times = new ArrayList<>();
+        BatchResult<Integer, String> result = new Retryable()
+                .retries(2L)
+                .performBatch(asList(1, 2, 3, 4), (List<Integer> inputs, BatchReporter<Integer, String> batch,
+                        RetryableContext context) -> {
+                    times.add(inputs);
+                    for (Integer input : inputs) {
+                        if (input % 2 == 0 && context.times() < 2L) {
+                            batch.fail(input, new Exception("the cause message: " + input));
+                        } else if (input != 3) {
+                            batch.succeed(input, "the output: " + input);
+                        }
+                    }
+                });
+        assertThat(times)
+                .containsExactly(asList(1, 2, 3, 4), asList(2, 3, 4), asList(3));
+        assertThat(result.outputs())
+                .containsOnlyKeys(1, 2, 4)
+                .containsEntry(2, "the output: 2");
+        assertThat(result.exceptions())
+                .containsOnlyKeys(3);
+        assertThat(result.exception(3).get())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("The input was not processed.");
+        assertThat(result.succeeded())
+                .isFalse();
+        assertThat(result.cannotRetryException().get())
+                .hasMessage("Maximum number of retry attempts reached");
+    }
+
+    /**
+     * Tests for {@link Retryable#performBatch(java.util.Collection, RetryableBatchProcess)}.
+     */
+    @Test
+    public void performBatch_throwException() {
+        AtomicInteger tries = new AtomicInteger();
+        BatchResult<String, String> result = new Retryable()
+                .performBatch(asList("a", "b"), (List<String> inputs, BatchReporter<String, String> batch,
+                        RetryableContext context) -> {
+                    if (tries.incrementAndGet() < 3) {
+                        throw new Exception("the cause message.");
+                    }
+                    inputs.forEach(input -> batch.succeed(input, input.toUpperCase()));
+                });
+        assertThat(result.succeeded())
+                .isTrue();
+        assertThat(result.outputs())
+                .containsExactly(entry("a", "A"), entry("b", "B"));
+        assertThat(result.cannotRetryException().isPresent())
+                .isFalse();
+        assertThat(tries.get())
+                .isEqualTo(3);
+    }
+
+}
@@ -0,0 +1,156 @@
+package net.rakugakibox.retryable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import org.junit.Test;
+
+/**
+ * The test of {@link Bulkhead}.
+ */
+public class BulkheadTest {
+
+    /**
+     * Tests for {@link Bulkhead#beforeTry(RetryableContext)}.
+     */
+    @Test
+    public void beforeTry_() {
+        Bulkhead bulkhead = new Bulkhead(1, 1);
+        RetryableContext first = new RetryableContext().next();
+        bulkhead.beforeTry(first);
+        assertThat(bulkhead.availableFirstTimes())
+                .isEqualTo(0);
+        assertThatThrownBy(() -> bulkhead.beforeTry(new RetryableContext().next()))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The bulkhead of the first times is full");
+        bulkhead.onSuccess(first);
+        assertThat(bulkhead.availableFirstTimes())
+                .isEqualTo(1);
+    }
+
+    /**
+     * Tests for {@link Bulkhead#handle(RetryableContext)}.
+     */
+    @Test
+    public void handle_() {
+        Bulkhead bulkhead = new Bulkhead(2, 1);
+        RetryableContext context = new RetryableContext().next();
+        bulkhead.beforeTry(context);
+        bulkhead.onFailure(context.fail(new Exception("the cause message.")));
+        bulkhead.handle(context);
+        assertThat(bulkhead.availableFirstTimes())
+                .isEqualTo(2);
+        assertThat(bulkhead.availableRetries())
+                .isEqualTo(0);
+        RetryableContext other = new RetryableContext().next();
+        bulkhead.beforeTry(other);
+        bulkhead.onFailure(other.fail(new Exception("the cause message.")));
+        assertThatThrownBy(() -> bulkhead.handle(other))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The bulkhead of the retries is full");
+        bulkhead.onCannotRetry(context, new CannotRetryException("the message.", null, context));
+        assertThat(bulkhead.availableRetries())
+                .isEqualTo(1);
+    }
+
+    /**
+     * Tests for {@link Retryable#bulkhead(Bulkhead)}.
+     */
+    @Test
+    public void bulkhead_() {
+        Bulkhead bulkhead = new Bulkhead(1, 1);
+        AtomicInteger tries = new AtomicInteger();
+        String result = new Retryable().bulkhead(bulkhead).call(() -> {
+            if (tries.incrementAndGet() < 3) {
+                throw new Exception("the cause message.");
+            }
+            return "the result.";
+        });
+        assertThat(result)
+                .isEqualTo("the result.");
+        assertThat(bulkhead.availableFirstTimes())
+                .isEqualTo(1);
+        assertThat(bulkhead.availableRetries())
+                .isEqualTo(1);
+    }
+
+    /**
+     * Tests for {@link Retryable#bulkhead(Bulkhead)}.
+     */
+    @Test
+    public void bulkhead_multiBulkheads() {
+        Bulkhead bulkhead1 = new Bulkhead(1, 1);
+        Bulkhead bulkhead2 = new Bulkhead(1, 1);
+        AtomicInteger tries = new AtomicInteger();
+        String result = new Retryable().bulkhead(bulkhead1).bulkhead(bulkhead2).call(() -> {
+            assertThat(bulkhead1.availableFirstTimes() + bulkhead1.availableRetries())
+                    .isEqualTo(1);
+            assertThat(bulkhead2.availableFirstTimes() + bulkhead2.availableRetries())
+                    .isEqualTo(1);
+            if (tries.incrementAndGet() < 3) {
+                throw new Exception("the cause message.");
+            }
+            return "the result.";
+        });
+        assertThat(result)
+                .isEqualTo("the result.");
+        assertThat(bulkhead1.availableFirstTimes() + bulkhead1.availableRetries())
+                .isEqualTo(2);
+        assertThat(bulkhead2.availableFirstTimes() + bulkhead2.availableRetries())
+                .isEqualTo(2);
+    }
+
+    /**
+     * Tests for {@link Retryable#bulkhead(Bulkhead)}.
+     */
+    @Test
+    public void bulkhead_throwError() {
+        Bulkhead bulkhead = new Bulkhead(1, 1);
+        Retryable retryable = new Retryable().bulkhead(bulkhead);
+        assertThatThrownBy(() -> retryable.run(() -> {
+            throw new AssertionError("the error message.");
+        }))
+                .isInstanceOf(AssertionError.class);
+        assertThat(bulkhead.availableFirstTimes())
+                .isEqualTo(1);
+        assertThat(retryable.call(() -> "the result."))
+                .isEqualTo("the result.");
+    }
+
+    /**
+     * Tests for {@link Retryable#bulkhead(Bulkhead)}.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void bulkhead_rejectSchedule() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 1);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        CompletableFuture<String> future = new Retryable().bulkhead(bulkhead).callAsync(() -> {
+            executor.shutdown();
+            throw new Exception("the cause message.");
+        }, executor);
+        assertThat(catchThrowable(future::join))
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(bulkhead.availableFirstTimes())
+                .isEqualTo(1);
+        assertThat(bulkhead.availableRetries())
+                .isEqualTo(1);
+    }
+
+    /**
+     * Tests for {@link Bulkhead#Bulkhead(int, int)}.
+     */
+    @Test
+    public void new_passZeroToMaxFirstTimes() {
+        assertThatThrownBy(() -> new Bulkhead(0, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The maximum number of concurrent first times is less than 1.");
+    }
+
+}
@@ -0,0 +1,248 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+/**
+ * The test of {@link CircuitBreaker}.
+ */
+public class CircuitBreakerTest {
+
+    /**
+     * The current time in nanoseconds.
+     */
+    private final AtomicLong now = new AtomicLong();
+
+    /**
+     * The circuit breaker.
+     */
+    private final CircuitBreaker breaker = new CircuitBreaker(
+            0.5, 4L, Duration.ofSeconds(10L), Duration.ofSeconds(1L), 1, now::get);
+
+    /**
+     * Tests for {@link CircuitBreaker#onFailure(RetryableContext)}.
+     */
+    @Test
+    public void onFailure_() {
+        succeed();
+        succeed();
+        fail();
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.CLOSED);
+        fail();
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    /**
+     * Tests for {@link CircuitBreaker#onFailure(RetryableContext)}.
+     */
+    @Test
+    public void onFailure_slidOut() {
+        fail();
+        fail();
+        fail();
+        now.addAndGet(Duration.ofSeconds(11L).toNanos());
+        fail();
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    /**
+     * Tests for {@link CircuitBreaker#beforeTry(RetryableContext)}.
+     */
+    @Test
+    public void beforeTry_open() {
+        open();
+        Exception cause = new Exception("the cause message.");
+        RetryableContext context = new RetryableContext().next().fail(cause).next();
+        assertThatThrownBy(() -> breaker.beforeTry(context))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The circuit breaker is open")
+                .hasCause(cause);
+    }
+
+    /**
+     * Tests for {@link CircuitBreaker#beforeTry(RetryableContext)}.
+     */
+    @Test
+    public void beforeTry_halfOpen() {
+        open();
+        now.addAndGet(Duration.ofSeconds(1L).toNanos());
+        breaker.beforeTry(new RetryableContext().next());
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(() -> breaker.beforeTry(new RetryableContext().next()))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The circuit breaker is half-open");
+    }
+
+    /**
+     * Tests for {@link CircuitBreaker#onSuccess(RetryableContext)}.
+     */
+    @Test
+    public void onSuccess_halfOpen() {
+        open();
+        now.addAndGet(Duration.ofSeconds(1L).toNanos());
+        succeed();
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.CLOSED);
+        fail();
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    /**
+     * Tests for {@link CircuitBreaker#onSuccess(RetryableContext)}.
+     */
+    @Test
+    public void onSuccess_halfOpenStartedWhileClosed() {
+        RetryableContext stale = new RetryableContext().next();
+        breaker.beforeTry(stale);
+        RetryableContext staleFailure = new RetryableContext().next();
+        breaker.beforeTry(staleFailure);
+        open();
+        now.addAndGet(Duration.ofSeconds(1L).toNanos());
+        RetryableContext trial = new RetryableContext().next();
+        breaker.beforeTry(trial);
+        breaker.onSuccess(stale);
+        breaker.onFailure(staleFailure.fail(new Exception("the cause message.")));
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onSuccess(trial);
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    /**
+     * Tests for {@link CircuitBreaker#onFailure(RetryableContext)}.
+     */
+    @Test
+    public void onFailure_halfOpen() {
+        open();
+        now.addAndGet(Duration.ofSeconds(1L).toNanos());
+        fail();
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    /**
+     * Tests for {@link CircuitBreaker#beforeTry(RetryableContext)}.
+     */
+    @Test
+    public void beforeTry_halfOpenTimedOut() {
+        open();
+        now.addAndGet(Duration.ofSeconds(1L).toNanos());
+        breaker.beforeTry(new RetryableContext().next());
+        now.addAndGet(Duration.ofSeconds(1L).toNanos());
+        assertThatThrownBy(() -> breaker.beforeTry(new RetryableContext().next()))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The circuit breaker is open");
+        now.addAndGet(Duration.ofSeconds(1L).toNanos());
+        succeed();
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    /**
+     * Tests for {@link CircuitBreaker#onCannotRetry(RetryableContext, CannotRetryException)}.
+     */
+    @Test
+    public void onCannotRetry_halfOpenRejectedBySubsequentListener() {
+        Bulkhead bulkhead = new Bulkhead(1, 0);
+        Retryable retryable = new Retryable().listener(breaker).bulkhead(bulkhead);
+        open();
+        now.addAndGet(Duration.ofSeconds(1L).toNanos());
+        RetryableContext occupying = new RetryableContext().next();
+        bulkhead.beforeTry(occupying);
+        assertThatThrownBy(() -> retryable.run(() -> {
+            throw new IllegalStateException("Must not be performed.");
+        }))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The bulkhead of the first times is full");
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        bulkhead.onSuccess(occupying);
+        assertThat(retryable.call(() -> "the result."))
+                .isEqualTo("the result.");
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    /**
+     * Tests for {@link CircuitBreaker#onError(RetryableContext, Throwable)}.
+     */
+    @Test
+    public void onError_halfOpen() {
+        Retryable retryable = new Retryable().listener(breaker);
+        open();
+        now.addAndGet(Duration.ofSeconds(1L).toNanos());
+        assertThatThrownBy(() -> retryable.run(() -> {
+            throw new AssertionError("the error message.");
+        }))
+                .isInstanceOf(AssertionError.class);
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    /**
+     * Tests for {@link Retryable#listener(RetryListener)}.
+     */
+    @Test
+    public void retryable_() {
+        CircuitBreaker breaker = new CircuitBreaker(1.0, 2L, Duration.ofSeconds(10L), Duration.ofSeconds(1L), 1);
+        Retryable retryable = new Retryable().listener(breaker);
+        assertThatThrownBy(() -> retryable.run(() -> {
+            throw new Exception("the cause message.");
+        }))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The circuit breaker is open");
+        assertThatThrownBy(() -> retryable.run(() -> {
+            throw new IllegalStateException("Must not be performed.");
+        }))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The circuit breaker is open");
+    }
+
+    /**
+     * Tests for {@link CircuitBreaker#toString()}.
+     */
+    @Test
+    public void toString_() {
+        assertThat(breaker)
+                .hasToString("CircuitBreaker(CLOSED)");
+    }
+
+    /**
+     * Performs a succeeded time.
+     */
+    private void succeed() {
+        RetryableContext context = new RetryableContext().next();
+        breaker.beforeTry(context);
+        breaker.onSuccess(context);
+    }
+
+    /**
+     * Performs a failed time.
+     */
+    private void fail() {
+        RetryableContext context = new RetryableContext().next();
+        breaker.beforeTry(context);
+        breaker.onFailure(context.fail(new Exception("the cause message.")));
+    }
+
+    /**
+     * Opens the circuit.
+     */
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertThat(breaker.state())
+                .isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+}
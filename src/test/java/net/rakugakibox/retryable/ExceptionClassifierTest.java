@@ -0,0 +1,168 @@
+package net.rakugakibox.retryable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+/**
+ * The test of {@link ExceptionClassifier}.
+ */
+public class ExceptionClassifierTest {
+
+    /**
+     * Tests for {@link ExceptionClassifier#all()}.
+     */
+    @Test
+    public void all_() {
+        ExceptionClassifier classifier = ExceptionClassifier.all();
+        assertThat(classifier.retryable(new Exception()))
+                .isTrue();
+        assertThat(classifier.retryable(new IOException()))
+                .isTrue();
+    }
+
+    /**
+     * Tests for {@link ExceptionClassifier#retryable(Throwable)}.
+     */
+    @Test
+    public void retryable_reused() {
+        ExceptionClassifier classifier = ExceptionClassifier.include(IOException.class)
+                .exclude(FileNotFoundException.class);
+        for (int i = 0; i < 100; i++) {
+            assertThat(classifier.retryable(new IOException()))
+                    .isTrue();
+            assertThat(classifier.retryable(new FileNotFoundException()))
+                    .isFalse();
+            assertThat(classifier.retryable(new IllegalStateException()))
+                    .isFalse();
+        }
+    }
+
+    /**
+     * Tests for {@link ExceptionClassifier#include(Class...)}.
+     */
+    @Test
+    public void include_() {
+        ExceptionClassifier classifier = ExceptionClassifier.include(IOException.class, IllegalStateException.class);
+        assertThat(classifier.retryable(new IOException()))
+                .isTrue();
+        assertThat(classifier.retryable(new FileNotFoundException()))
+                .isTrue();
+        assertThat(classifier.retryable(new IllegalStateException()))
+                .isTrue();
+        assertThat(classifier.retryable(new IllegalArgumentException()))
+                .isFalse();
+    }
+
+    /**
+     * Tests for {@link ExceptionClassifier#include(Class...)}.
+     */
+    @Test
+    public void include_empty() {
+        ExceptionClassifier classifier = ExceptionClassifier.include();
+        assertThat(classifier.retryable(new Exception()))
+                .isFalse();
+    }
+
+    /**
+     * Tests for {@link ExceptionClassifier#include(Class...)}.
+     */
+    @Test
+    public void include_passNullToType() {
+        assertThatThrownBy(() -> ExceptionClassifier.include(IOException.class, null))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    /**
+     * Tests for {@link ExceptionClassifier#exclude(Class...)}.
+     */
+    @Test
+    public void exclude_() {
+        ExceptionClassifier classifier = ExceptionClassifier.include(IOException.class)
+                .exclude(FileNotFoundException.class);
+        assertThat(classifier.retryable(new IOException()))
+                .isTrue();
+        assertThat(classifier.retryable(new FileNotFoundException()))
+                .isFalse();
+    }
+
+    /**
+     * Tests for {@link ExceptionClassifier#exclude(Class...)}.
+     */
+    @Test
+    public void exclude_withoutIncludes() {
+        ExceptionClassifier classifier = ExceptionClassifier.all().exclude(IllegalArgumentException.class);
+        assertThat(classifier.retryable(new IOException()))
+                .isTrue();
+        assertThat(classifier.retryable(new NumberFormatException()))
+                .isFalse();
+    }
+
+    /**
+     * Tests for {@link ExceptionClassifier#withCauses()}.
+     */
+    @Test
+    public void withCauses_() {
+        ExceptionClassifier classifier = ExceptionClassifier.include(IOException.class);
+        Exception exception = new UncheckedIOException(new IOException());
+        assertThat(classifier.retryable(exception))
+                .isFalse();
+        assertThat(classifier.withCauses().retryable(exception))
+                .isTrue();
+    }
+
+    /**
+     * Tests for {@link ExceptionClassifier#withCauses()}.
+     */
+    @Test
+    public void withCauses_excluded() {
+        ExceptionClassifier classifier = ExceptionClassifier.include(RuntimeException.class)
+                .exclude(FileNotFoundException.class)
+                .withCauses();
+        assertThat(classifier.retryable(new Exception(new FileNotFoundException())))
+                .isFalse();
+        assertThat(classifier.retryable(new Exception(new IllegalStateException(new FileNotFoundException()))))
+                .isTrue();
+    }
+
+    /**
+     * Tests for {@link ExceptionClassifier#withCauses()}.
+     */
+    @Test
+    public void withCauses_circular() {
+        Exception exception1 = new Exception();
+        Exception exception2 = new Exception(exception1);
+        exception1.initCause(exception2);
+        assertThat(ExceptionClassifier.include(IOException.class).withCauses().retryable(exception1))
+                .isFalse();
+    }
+
+    /**
+     * Tests for {@link Retryable#on(ExceptionClassifier)}.
+     */
+    @Test
+    public void retryable_() {
+        IllegalArgumentException cause = new IllegalArgumentException("the cause message.");
+        Retryable retryable = new Retryable().on(ExceptionClassifier.all().exclude(IllegalArgumentException.class));
+        assertThatThrownBy(() -> retryable.run(() -> {
+            throw cause;
+        }))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("An exception type did not match")
+                .hasCause(cause);
+    }
+
+    /**
+     * Tests for {@link ExceptionClassifier#toString()}.
+     */
+    @Test
+    public void toString_() {
+        ExceptionClassifier classifier = ExceptionClassifier.include(IOException.class).withCauses();
+        assertThat(classifier)
+                .hasToString("ExceptionClassifier(includes=[class java.io.IOException], excludes=[], with causes)");
+    }
+
+}
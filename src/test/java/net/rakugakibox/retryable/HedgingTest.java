@@ -0,0 +1,214 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test of {@link Hedging}.
+ */
+public class HedgingTest {
+
+    /**
+     * The executor that runs the attempts.
+     */
+    private ExecutorService executor;
+
+    /**
+     * The scheduler.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Sets up the executors.
+     */
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Shuts down the executors.
+     */
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#performAsync(ScheduledExecutorService)}.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void performAsync_() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> future = new Retryable()
+                .hedge(Duration.ofMillis(10L), 2, executor)
+                .callAsync(() -> {
+                    if (attempts.incrementAndGet() == 1) {
+                        try {
+                            new CountDownLatch(1).await();
+                        } catch (InterruptedException exc) {
+                            interrupted.countDown();
+                            throw exc;
+                        }
+                    }
+                    return "the result.";
+                }, scheduler);
+        assertThat(future.get())
+                .isEqualTo("the result.");
+        assertThat(interrupted.await(5L, TimeUnit.SECONDS))
+                .isTrue();
+        assertThat(attempts.get())
+                .isEqualTo(2);
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#performAsync(ScheduledExecutorService)}.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void performAsync_allAttemptsFailed() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> future = new Retryable()
+                .retries(1L)
+                .hedge(Duration.ofDays(1L), 2, executor)
+                .callAsync(() -> {
+                    attempts.incrementAndGet();
+                    throw new Exception("the cause message.");
+                }, scheduler);
+        Throwable thrown = catchThrowable(future::join);
+        assertThat(thrown.getCause())
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("Maximum number of retry attempts reached");
+        assertThat(attempts.get())
+                .isEqualTo(2);
+    }
+
+    /**
+     * Tests for {@link RetryPolicy#performStage(RetryableStage, ScheduledExecutorService)}.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void performStage_() throws Exception {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        first.whenComplete((result, exception) -> cancelled.countDown());
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> future = new Retryable()
+                .hedge(Duration.ofMillis(10L), 2, executor)
+                .performStage(context -> attempts.incrementAndGet() == 1
+                        ? first : CompletableFuture.completedFuture("the result."), scheduler);
+        assertThat(future.get())
+                .isEqualTo("the result.");
+        assertThat(cancelled.await(5L, TimeUnit.SECONDS))
+                .isTrue();
+        assertThat(first.isCancelled())
+                .isTrue();
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#performAsync(ScheduledExecutorService)}.
+     * The attempts are given a snapshot of the context.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void performAsync_snapshot() throws Exception {
+        CompletableFuture<Long> future = new Retryable()
+                .hedge(Duration.ofDays(1L), 2, executor)
+                .performAsync(context -> {
+                    try {
+                        context.interval(Duration.ofMillis(1L));
+                    } catch (UnsupportedOperationException exc) {
+                        return context.times();
+                    }
+                    throw new IllegalStateException("The context can be modified.");
+                }, scheduler);
+        assertThat(future.get())
+                .isEqualTo(1L);
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#perform()}.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void perform_() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        String result = new Retryable()
+                .hedge(Duration.ofMillis(20L), 2, executor)
+                .call(context -> {
+                    if (attempts.incrementAndGet() == 1) {
+                        try {
+                            new CountDownLatch(1).await();
+                        } catch (InterruptedException exc) {
+                            interrupted.countDown();
+                            throw exc;
+                        }
+                    }
+                    return "the result: " + context.times() + " times";
+                });
+        assertThat(result)
+                .isEqualTo("the result: 1 times");
+        assertThat(interrupted.await(5L, TimeUnit.SECONDS))
+                .isTrue();
+        assertThat(attempts.get())
+                .isEqualTo(2);
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#perform()}.
+     * Each time fails only after all its attempts have been launched.
+     */
+    @Test
+    public void perform_allAttemptsFailed() {
+        AtomicInteger attempts = new AtomicInteger();
+        Map<Long, CountDownLatch> launched = new ConcurrentHashMap<>();
+        Retryable retryable = new Retryable()
+                .retries(1L)
+                .hedge(Duration.ofMillis(1L), 3, executor);
+        assertThatThrownBy(() -> retryable.run(context -> {
+            attempts.incrementAndGet();
+            CountDownLatch latch = launched.computeIfAbsent(context.times(), times -> new CountDownLatch(3));
+            latch.countDown();
+            latch.await();
+            throw new Exception("the cause message.");
+        }))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("Maximum number of retry attempts reached");
+        assertThat(attempts.get())
+                .isEqualTo(6);
+    }
+
+    /**
+     * Tests for {@link Retryable#hedge(Duration, int, ExecutorService)}.
+     */
+    @Test
+    public void hedge_passOneToMaxParallel() {
+        assertThatThrownBy(() -> new Retryable().hedge(Duration.ofMillis(1L), 1, executor))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
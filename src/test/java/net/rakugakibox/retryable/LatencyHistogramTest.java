@@ -0,0 +1,72 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+/**
+ * The test of {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Tests for {@link LatencyHistogram#record(long)}.
+     */
+    @Test
+    public void record_() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100L);
+        histogram.record(300L);
+        histogram.record(-1L);
+        assertThat(histogram.count())
+                .isEqualTo(3L);
+        assertThat(histogram.total())
+                .isEqualTo(Duration.ofNanos(400L));
+        assertThat(histogram.mean())
+                .isEqualTo(Duration.ofNanos(133L));
+        assertThat(histogram.max())
+                .isEqualTo(Duration.ofNanos(300L));
+    }
+
+    /**
+     * Tests for {@link LatencyHistogram#percentile(double)}.
+     */
+    @Test
+    public void percentile_() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_000L);
+        }
+        histogram.record(1_000_000L);
+        assertThat(histogram.percentile(0.5))
+                .isEqualTo(Duration.ofNanos(1_023L));
+        assertThat(histogram.percentile(0.99))
+                .isEqualTo(Duration.ofNanos(1_023L));
+        assertThat(histogram.percentile(1.0))
+                .isEqualTo(Duration.ofNanos(1_000_000L));
+    }
+
+    /**
+     * Tests for {@link LatencyHistogram#percentile(double)}.
+     */
+    @Test
+    public void percentile_noLatencies() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.percentile(0.5))
+                .isEqualTo(Duration.ZERO);
+        assertThat(histogram.mean())
+                .isEqualTo(Duration.ZERO);
+    }
+
+    /**
+     * Tests for {@link LatencyHistogram#percentile(double)}.
+     */
+    @Test
+    public void percentile_passOutOfRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThatThrownBy(() -> histogram.percentile(1.5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
@@ -0,0 +1,118 @@
+package net.rakugakibox.retryable;
+
+import static java.util.Arrays.asList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import static java.util.stream.Collectors.toList;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test of {@link ParallelMapping}.
+ */
+public class ParallelMappingTest {
+
+    /**
+     * The executor that maps the elements.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Sets up the executor.
+     */
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    /**
+     * Shuts down the executor.
+     */
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests for {@link Retryable#map(Stream, RetryableMapper, int, boolean, java.util.concurrent.Executor)}.
+     */
+    @Test
+    public void map_() {
+        Map<Integer, AtomicInteger> tries = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<String> results = new Retryable()
+                .retries(2L)
+                .map(IntStream.range(0, 20).boxed(), element -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        if (tries.computeIfAbsent(element, key -> new AtomicInteger()).incrementAndGet() < 2) {
+                            throw new Exception("the cause message.");
+                        }
+                        return "the result: " + element;
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                }, 4, true, executor)
+                .collect(toList());
+        assertThat(results)
+                .hasSize(20)
+                .startsWith("the result: 0", "the result: 1")
+                .endsWith("the result: 19");
+        assertThat(maxRunning.get())
+                .isLessThanOrEqualTo(4);
+    }
+
+    /**
+     * Tests for {@link Retryable#map(Iterable, RetryableMapper, int, boolean, java.util.concurrent.Executor)}.
+     * Each element completes only after the previous one in the expected order was emitted.
+     */
+    @Test
+    public void map_unordered() {
+        Map<Integer, CountDownLatch> emitted = new ConcurrentHashMap<>();
+        emitted.put(1, new CountDownLatch(1));
+        emitted.put(20, new CountDownLatch(1));
+        List<Integer> results = new Retryable()
+                .map(asList(30, 1, 20), element -> {
+                    if (element == 20) {
+                        emitted.get(1).await();
+                    } else if (element == 30) {
+                        emitted.get(20).await();
+                    }
+                    return element;
+                }, 3, false, executor)
+                .peek(result -> emitted.getOrDefault(result, new CountDownLatch(0)).countDown())
+                .collect(toList());
+        assertThat(results)
+                .containsExactly(1, 20, 30);
+    }
+
+    /**
+     * Tests for {@link Retryable#map(Iterable, RetryableMapper, int, boolean, java.util.concurrent.Executor)}.
+     */
+    @Test
+    public void map_cannotRetry() {
+        Stream<String> results = new Retryable()
+                .retries(1L)
+                .map(asList(1, 2, 3), element -> {
+                    if (element == 2) {
+                        throw new Exception("the cause message.");
+                    }
+                    return "the result: " + element;
+                }, 2, true, executor);
+        assertThatThrownBy(() -> results.collect(toList()))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("Maximum number of retry attempts reached");
+    }
+
+}
@@ -0,0 +1,92 @@
+package net.rakugakibox.retryable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+/**
+ * The test of {@link RetryBudget}.
+ */
+public class RetryBudgetTest {
+
+    /**
+     * Tests for {@link RetryBudget#tryAcquire()}.
+     */
+    @Test
+    public void tryAcquire_() {
+        AtomicLong now = new AtomicLong();
+        RetryBudget budget = new RetryBudget(3L, 10.0, now::get);
+        assertThat(budget.available())
+                .isEqualTo(3L);
+        assertThat(budget.tryAcquire())
+                .isTrue();
+        assertThat(budget.tryAcquire())
+                .isTrue();
+        assertThat(budget.tryAcquire())
+                .isTrue();
+        assertThat(budget.tryAcquire())
+                .isFalse();
+        assertThat(budget.available())
+                .isEqualTo(0L);
+    }
+
+    /**
+     * Tests for {@link RetryBudget#tryAcquire()}.
+     */
+    @Test
+    public void tryAcquire_refilled() {
+        AtomicLong now = new AtomicLong();
+        RetryBudget budget = new RetryBudget(2L, 10.0, now::get);
+        budget.tryAcquire();
+        budget.tryAcquire();
+        now.addAndGet(100_000_000L);
+        assertThat(budget.available())
+                .isEqualTo(1L);
+        assertThat(budget.tryAcquire())
+                .isTrue();
+        assertThat(budget.tryAcquire())
+                .isFalse();
+        now.addAndGet(10_000_000_000L);
+        assertThat(budget.available())
+                .isEqualTo(2L);
+    }
+
+    /**
+     * Tests for {@link RetryBudget#handle(RetryableContext)}.
+     */
+    @Test
+    public void handle_() {
+        AtomicLong now = new AtomicLong();
+        RetryBudget budget = new RetryBudget(1L, 1.0, now::get);
+        Exception cause = new Exception("the cause message.");
+        RetryableContext context = new RetryableContext().next().fail(cause);
+        budget.handle(context);
+        assertThatThrownBy(() -> budget.handle(context))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The retry budget was exhausted")
+                .hasCause(cause);
+    }
+
+    /**
+     * Tests for {@link RetryBudget#RetryBudget(long, double)}.
+     */
+    @Test
+    public void new_passZeroToCapacity() {
+        assertThatThrownBy(() -> new RetryBudget(0L, 1.0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The capacity is less than 1.");
+    }
+
+    /**
+     * Tests for {@link RetryBudget#toString()}.
+     */
+    @Test
+    public void toString_() {
+        AtomicLong now = new AtomicLong();
+        RetryBudget budget = new RetryBudget(5L, 1.0, now::get);
+        assertThat(budget)
+                .hasToString("RetryBudget(5 tokens available)");
+    }
+
+}
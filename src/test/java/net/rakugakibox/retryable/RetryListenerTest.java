@@ -0,0 +1,70 @@
+package net.rakugakibox.retryable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+/**
+ * The test of {@link RetryListener}.
+ */
+public class RetryListenerTest {
+
+    /**
+     * Tests for {@link RetryListener#andThen(RetryListener)}.
+     */
+    @Test
+    public void andThen_() {
+        StringBuilder string = new StringBuilder();
+        RetryListener listener1 = new RetryListener() {
+            @Override
+            public void beforeTry(RetryableContext context) {
+                string.append("first: before; ");
+            }
+
+            @Override
+            public void onFailure(RetryableContext context) {
+                string.append("first: failure; ");
+            }
+        };
+        RetryListener listener2 = new RetryListener() {
+            @Override
+            public void beforeTry(RetryableContext context) {
+                string.append("second: before; ");
+            }
+
+            @Override
+            public void onSuccess(RetryableContext context) {
+                string.append("second: success; ");
+            }
+        };
+        RetryListener listener = listener1.andThen(listener2);
+        RetryableContext context = new RetryableContext().next();
+        listener.beforeTry(context);
+        listener.onFailure(context);
+        listener.onSuccess(context);
+        assertThat(string)
+                .hasToString("first: before; second: before; first: failure; second: success; ");
+    }
+
+    /**
+     * Tests for {@link RetryListener#andThen(RetryListener)}.
+     */
+    @Test
+    public void andThen_passNullToListener() {
+        RetryListener listener = RetryListener.nop();
+        assertThatThrownBy(() -> listener.andThen(null))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    /**
+     * Tests for {@link RetryListener#nop()}.
+     */
+    @Test
+    public void nop_() {
+        RetryListener listener = RetryListener.nop();
+        listener.beforeTry(null);
+        listener.onSuccess(null);
+        listener.onFailure(null);
+    }
+
+}
@@ -0,0 +1,38 @@
+package net.rakugakibox.retryable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+/**
+ * The test of {@link RetryMetricsRegistry}.
+ */
+public class RetryMetricsRegistryTest {
+
+    /**
+     * Tests for {@link RetryMetricsRegistry#metrics(String)}.
+     */
+    @Test
+    public void metrics_() {
+        RetryMetricsRegistry registry = new RetryMetricsRegistry();
+        RetryMetrics metrics = registry.metrics("b");
+        assertThat(registry.metrics("b"))
+                .isSameAs(metrics);
+        assertThat(registry.metrics("a"))
+                .isNotSameAs(metrics);
+        assertThat(registry.metrics())
+                .containsOnlyKeys("a", "b")
+                .containsEntry("b", metrics);
+    }
+
+    /**
+     * Tests for {@link RetryMetricsRegistry#metrics(String)}.
+     */
+    @Test
+    public void metrics_passNullToName() {
+        RetryMetricsRegistry registry = new RetryMetricsRegistry();
+        assertThatThrownBy(() -> registry.metrics(null))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+}
@@ -0,0 +1,87 @@
+package net.rakugakibox.retryable;
+
+import java.io.IOException;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+/**
+ * The test of {@link RetryMetrics}.
+ */
+public class RetryMetricsTest {
+
+    /**
+     * Tests for {@link RetryMetrics}.
+     */
+    @Test
+    public void successAfterRetry() {
+        RetryMetrics metrics = new RetryMetrics();
+        int[] counter = {0};
+        String result = new Retryable()
+                .listener(metrics)
+                .call(() -> {
+                    if (++counter[0] < 3) {
+                        throw new IOException();
+                    }
+                    return "result";
+                });
+        assertThat(result)
+                .isEqualTo("result");
+        assertThat(metrics.tries())
+                .isEqualTo(3L);
+        assertThat(metrics.successes())
+                .isEqualTo(1L);
+        assertThat(metrics.successesAfterRetry())
+                .isEqualTo(1L);
+        assertThat(metrics.failures())
+                .isEqualTo(2L);
+        assertThat(metrics.exhausted())
+                .isEqualTo(0L);
+        assertThat(metrics.failuresByType())
+                .containsOnlyKeys(IOException.class.getName())
+                .containsEntry(IOException.class.getName(), 2L);
+        assertThat(metrics.amplification())
+                .isEqualTo(3.0);
+        assertThat(metrics.tryLatency().count())
+                .isEqualTo(3L);
+        assertThat(metrics.totalLatency().count())
+                .isEqualTo(1L);
+    }
+
+    /**
+     * Tests for {@link RetryMetrics}.
+     */
+    @Test
+    public void exhausted() {
+        RetryMetrics metrics = new RetryMetrics();
+        Retryable retryable = new Retryable()
+                .retries(1L)
+                .listener(metrics);
+        assertThatThrownBy(() -> retryable.run(() -> {
+            throw new IllegalStateException();
+        }))
+                .isInstanceOf(CannotRetryException.class);
+        assertThat(metrics.tries())
+                .isEqualTo(2L);
+        assertThat(metrics.successes())
+                .isEqualTo(0L);
+        assertThat(metrics.failures())
+                .isEqualTo(2L);
+        assertThat(metrics.exhausted())
+                .isEqualTo(1L);
+        assertThat(metrics.failuresByType())
+                .containsEntry(IllegalStateException.class.getName(), 2L);
+        assertThat(metrics.totalLatency().count())
+                .isEqualTo(1L);
+    }
+
+    /**
+     * Tests for {@link RetryMetrics#amplification()}.
+     */
+    @Test
+    public void amplification_noProcesses() {
+        assertThat(new RetryMetrics().amplification())
+                .isEqualTo(0.0);
+    }
+
+}
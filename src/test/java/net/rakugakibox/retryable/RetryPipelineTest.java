@@ -0,0 +1,113 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+/**
+ * The test of {@link RetryPipeline}.
+ */
+public class RetryPipelineTest {
+
+    /**
+     * Tests for {@link RetryPipeline#empty()}.
+     */
+    @Test
+    public void empty_() {
+        RetryPipeline pipeline = RetryPipeline.empty();
+        assertThat(pipeline.size())
+                .isEqualTo(0);
+        pipeline.handle(new RetryableContext().next());
+    }
+
+    /**
+     * Tests for {@link RetryPipeline#with(RetryHandler, boolean)}.
+     */
+    @Test
+    public void with_() {
+        StringBuilder string = new StringBuilder();
+        RetryPipeline empty = RetryPipeline.empty();
+        RetryPipeline pipeline = empty
+                .with(context -> string.append("first; "), false)
+                .with(context -> string.append("second; "), true)
+                .with(context -> string.append("third; "), false);
+        pipeline.handle(new RetryableContext().next());
+        assertThat(string)
+                .hasToString("first; second; third; ");
+        assertThat(empty.size())
+                .isEqualTo(0);
+    }
+
+    /**
+     * Tests for {@link RetryPipeline#with(RetryHandler, boolean)}.
+     */
+    @Test
+    public void with_passNullToHandler() {
+        assertThatThrownBy(() -> RetryPipeline.empty().with(null, false))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    /**
+     * Tests for {@link RetryPipeline#checksFirst(boolean)}.
+     */
+    @Test
+    public void checksFirst_() {
+        StringBuilder string = new StringBuilder();
+        RetryPipeline pipeline = RetryPipeline.empty()
+                .with(context -> string.append("first; "), false)
+                .checksFirst(true)
+                .with(context -> string.append("second; "), true)
+                .with(context -> string.append("third; "), false)
+                .with(context -> string.append("fourth; "), true);
+        pipeline.handle(new RetryableContext().next());
+        assertThat(string)
+                .hasToString("second; fourth; first; third; ");
+    }
+
+    /**
+     * Tests for {@link RetryPipeline#handle(RetryableContext)}.
+     */
+    @Test
+    public void handle_cannotRetry() {
+        StringBuilder string = new StringBuilder();
+        RetryPipeline pipeline = RetryPipeline.empty()
+                .with(context -> string.append("first; "), false)
+                .with(context -> {
+                    throw new CannotRetryException("the exception message.", null, context);
+                }, true)
+                .with(context -> string.append("third; "), false)
+                .checksFirst(true);
+        assertThatThrownBy(() -> pipeline.handle(new RetryableContext().next()))
+                .isInstanceOf(CannotRetryException.class);
+        assertThat(string)
+                .hasToString("");
+    }
+
+    /**
+     * Tests for {@link RetryPipeline#deadline(Duration)}.
+     */
+    @Test
+    public void deadline_() {
+        RetryPipeline pipeline = RetryPipeline.empty()
+                .with(context -> context.interval(Duration.ofSeconds(1L)), false)
+                .deadline(Duration.ofMillis(500L));
+        assertThatThrownBy(() -> pipeline.handle(new RetryableContext().next()))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The deadline would be exceeded");
+        assertThat(pipeline.deadline(Duration.ofSeconds(2L)))
+                .hasToString("RetryPipeline(1 handlers, deadline PT2S)");
+        pipeline.deadline(Duration.ofSeconds(2L)).handle(new RetryableContext().next());
+    }
+
+    /**
+     * Tests for {@link RetryPipeline#toString()}.
+     */
+    @Test
+    public void toString_() {
+        RetryPipeline pipeline = RetryPipeline.empty().with(RetryHandler.nop(), false).checksFirst(true);
+        assertThat(pipeline)
+                .hasToString("RetryPipeline(1 handlers, checks first)");
+    }
+
+}
@@ -0,0 +1,99 @@
+package net.rakugakibox.retryable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.Test;
+
+/**
+ * The test of {@link RetryPolicy}.
+ */
+public class RetryPolicyTest {
+
+    /**
+     * Tests for {@link Retryable#policy()}.
+     */
+    @Test
+    public void policy_() {
+        Retryable retryable = new Retryable().retries(1L);
+        RetryPolicy policy = retryable.policy();
+        retryable.retries(0L);
+        AtomicInteger tries = new AtomicInteger();
+        String result = policy.call(() -> {
+            if (tries.incrementAndGet() < 2) {
+                throw new Exception("the cause message.");
+            }
+            return "the result.";
+        });
+        assertThat(result)
+                .isEqualTo("the result.");
+    }
+
+    /**
+     * Tests for {@link RetryPolicy#derive()}.
+     */
+    @Test
+    public void derive_() {
+        RetryPolicy policy = new Retryable().retries(1L).policy();
+        RetryPolicy derived = policy.derive().retries(0L).policy();
+        AtomicInteger tries = new AtomicInteger();
+        assertThatThrownBy(() -> derived.run(() -> {
+            tries.incrementAndGet();
+            throw new Exception("the cause message.");
+        }))
+                .isInstanceOf(CannotRetryException.class);
+        assertThat(tries.get())
+                .isEqualTo(1);
+        assertThatThrownBy(() -> policy.run(() -> {
+            tries.incrementAndGet();
+            throw new Exception("the cause message.");
+        }))
+                .isInstanceOf(CannotRetryException.class);
+        assertThat(tries.get())
+                .isEqualTo(3);
+    }
+
+    /**
+     * Tests for {@link RetryPolicy#call(RetryableProcess.Function)}.
+     *
+     * @throws Exception if an exception occurs.
+     */
+    @Test
+    public void call_concurrently() throws Exception {
+        RetryPolicy policy = new Retryable().retries(2L).policy();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(executor.submit(() -> policy.call(context -> {
+                    if (context.times() < 3L) {
+                        throw new Exception("the cause message.");
+                    }
+                    return context.times();
+                })));
+            }
+            for (Future<Long> future : futures) {
+                assertThat(future.get())
+                        .isEqualTo(3L);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests for {@link RetryPolicy#toString()}.
+     */
+    @Test
+    public void toString_() {
+        RetryPolicy policy = new Retryable().retries(1L).interval(100L).policy();
+        assertThat(policy)
+                .hasToString("RetryPolicy(RetryPipeline(2 handlers))");
+    }
+
+}
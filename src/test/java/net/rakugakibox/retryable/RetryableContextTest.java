@@ -1,5 +1,8 @@
 package net.rakugakibox.retryable;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.Test;
@@ -21,6 +24,58 @@ public class RetryableContextTest {
                 .isEmpty();
     }
 
+    /**
+     * Tests for {@link RetryableContext#first()}.
+     */
+    @Test
+    public void first_() {
+        RetryableContext context = RetryableContext.first();
+        assertThat(context.times())
+                .isEqualTo(1L);
+        assertThat(context.exceptions())
+                .isEmpty();
+        assertThat(RetryableContext.first())
+                .isSameAs(context);
+    }
+
+    /**
+     * Tests for {@link RetryableContext#first()}.
+     */
+    @Test
+    public void first_modify() {
+        RetryableContext context = RetryableContext.first();
+        assertThatThrownBy(() -> context.next())
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> context.fail(new Exception("the cause message.")))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> context.interval(Duration.ofMillis(100L)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    /**
+     * Tests for {@link RetryableContext#snapshot()}.
+     */
+    @Test
+    public void snapshot_() {
+        RetryableContext context = new RetryableContext();
+        Exception exception = new Exception("the cause message.");
+        context.next().fail(exception).next();
+        RetryableContext snapshot = context.snapshot();
+        context.fail(new Exception("the other message.")).next();
+        assertThat(snapshot.times())
+                .isEqualTo(2L);
+        assertThat(snapshot.exceptions())
+                .containsExactly(exception);
+        assertThat(snapshot.snapshot())
+                .isSameAs(snapshot);
+        assertThatThrownBy(() -> snapshot.next())
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> snapshot.fail(new Exception("the cause message.")))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> snapshot.interval(Duration.ofMillis(100L)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
     /**
      * Tests for {@link RetryableContext#next()}.
      */
@@ -78,6 +133,47 @@ public class RetryableContextTest {
                 .containsExactly(cause1, cause2);
     }
 
+    /**
+     * Tests for {@link RetryableContext#fail(Exception)}.
+     */
+    @Test
+    public void fail_withHistory() {
+        RetryableContext context = new RetryableContext(System.nanoTime(), ExceptionHistory.firstAndLast(1, 2));
+        Exception cause1 = new Exception("the cause1 message.");
+        Exception cause2 = new Exception("the cause2 message.");
+        Exception cause3 = new Exception("the cause3 message.");
+        Exception cause4 = new Exception("the cause4 message.");
+        context.next().fail(cause1).next().fail(cause2).next().fail(cause3).next().fail(cause4);
+        assertThat(context.exceptions())
+                .containsExactly(cause1, cause3, cause4);
+        assertThat(context.exceptionCount())
+                .isEqualTo(4L);
+        assertThat(context.exception().get())
+                .isSameAs(cause4);
+        assertThat(context)
+                .hasToString("RetryableContext(4 times, 4 exceptions)");
+    }
+
+    /**
+     * Tests for {@link RetryableContext#fail(Exception)}.
+     */
+    @Test
+    public void fail_withLastHistory() {
+        RetryableContext context = new RetryableContext(System.nanoTime(), ExceptionHistory.last(3));
+        List<Exception> causes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Exception cause = new Exception("the cause" + i + " message.");
+            causes.add(cause);
+            context.next().fail(cause);
+        }
+        assertThat(context.exceptions())
+                .containsExactlyElementsOf(causes.subList(7, 10));
+        assertThat(context.exceptionCount())
+                .isEqualTo(10L);
+        assertThat(context.exception().get())
+                .isSameAs(causes.get(9));
+    }
+
     /**
      * Tests for {@link RetryableContext#fail(Exception)}.
      */
@@ -135,6 +231,55 @@ public class RetryableContextTest {
                 .isEmpty();
     }
 
+    /**
+     * Tests for {@link RetryableContext#interval(Duration)}.
+     */
+    @Test
+    public void interval_() {
+        RetryableContext context = new RetryableContext();
+        context.next().fail(new Exception("the cause message."));
+        assertThat(context.interval(Duration.ofMillis(100L)).interval(Duration.ofMillis(200L)))
+                .isEqualTo(context);
+        assertThat(context.interval())
+                .isEqualTo(Duration.ofMillis(300L));
+    }
+
+    /**
+     * Tests for {@link RetryableContext#interval(Duration)}.
+     */
+    @Test
+    public void interval_withNext() {
+        RetryableContext context = new RetryableContext();
+        context.next().fail(new Exception("the cause message.")).interval(Duration.ofMillis(100L)).next();
+        assertThat(context.interval())
+                .isEqualTo(Duration.ZERO);
+    }
+
+    /**
+     * Tests for {@link RetryableContext#interval(Duration)}.
+     */
+    @Test
+    public void interval_passNegative() {
+        RetryableContext context = new RetryableContext();
+        assertThatThrownBy(() -> context.interval(Duration.ofMillis(-1L)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The interval is negative.");
+    }
+
+    /**
+     * Tests for {@link RetryableContext#previousInterval()}.
+     */
+    @Test
+    public void previousInterval_() {
+        RetryableContext context = new RetryableContext();
+        context.next().fail(new Exception("the cause message.")).interval(Duration.ofMillis(100L));
+        assertThat(context.previousInterval())
+                .isEqualTo(Duration.ZERO);
+        context.next();
+        assertThat(context.previousInterval())
+                .isEqualTo(Duration.ofMillis(100L));
+    }
+
     /**
      * Tests for {@link RetryableContext#toString()}.
      */
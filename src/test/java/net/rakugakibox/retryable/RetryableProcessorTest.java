@@ -0,0 +1,241 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test of {@link RetryableProcessor}.
+ */
+public class RetryableProcessorTest {
+
+    /**
+     * The executor.
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * Sets up the executor.
+     */
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Shuts down the executor.
+     */
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#perform()}.
+     */
+    @Test
+    public void perform_() {
+        AtomicInteger tries = new AtomicInteger();
+        RetryableProcessor<String> processor = processor(context -> {
+            if (tries.incrementAndGet() < 3) {
+                throw new Exception("the cause message.");
+            }
+            return "the result.";
+        }, RetryHandler.nop());
+        assertThat(processor.perform())
+                .isEqualTo("the result.");
+        assertThat(tries.get())
+                .isEqualTo(3);
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#perform()}.
+     */
+    @Test
+    public void perform_withInterval() {
+        AtomicInteger tries = new AtomicInteger();
+        RetryableProcessor<String> processor = processor(context -> {
+            if (tries.incrementAndGet() < 2) {
+                throw new Exception("the cause message.");
+            }
+            return "the result.";
+        }, context -> context.interval(Duration.ofMillis(1500L)));
+        long start = System.nanoTime();
+        assertThat(processor.perform())
+                .isEqualTo("the result.");
+        assertThat(Duration.ofNanos(System.nanoTime() - start))
+                .isGreaterThanOrEqualTo(Duration.ofMillis(1500L));
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#perform()}.
+     */
+    @Test
+    public void perform_cannotRetry() {
+        Exception cause = new Exception("the cause message.");
+        RetryableProcessor<String> processor = processor(context -> {
+            throw cause;
+        }, context -> {
+            throw new CannotRetryException("the exception message.", context.exception().get(), context);
+        });
+        assertThatThrownBy(() -> processor.perform())
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("the exception message.")
+                .hasCause(cause);
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#perform()}.
+     */
+    @Test
+    public void perform_interrupted() {
+        AtomicInteger tries = new AtomicInteger();
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> new Retryable().retries(3L).run(() -> {
+                tries.incrementAndGet();
+                throw new Exception("the cause message.");
+            }))
+                    .isInstanceOf(CannotRetryException.class)
+                    .hasMessage("A sleep was interrupted");
+            assertThat(Thread.currentThread().isInterrupted())
+                    .isTrue();
+            assertThat(tries.get())
+                    .isEqualTo(1);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#perform(RetryPolicy, RetryableProcess)}.
+     * A process that does not use the context is given the shared context on the first time,
+     * so the success on the first time allocates no context.
+     */
+    @Test
+    public void perform_sharedFirstContext() {
+        List<RetryableContext> contexts = new ArrayList<>();
+        RetryableProcess.NonContextualFunction<String> function = new RetryableProcess.NonContextualFunction<String>() {
+            @Override
+            public String perform(RetryableContext context) throws Exception {
+                contexts.add(context);
+                return call();
+            }
+
+            @Override
+            public String call() {
+                return "the result.";
+            }
+        };
+        assertThat(new Retryable().retries(3L).interval(100L).call(function))
+                .isEqualTo("the result.");
+        assertThat(new Retryable().listener(new RetryListener() { }).call(function))
+                .isEqualTo("the result.");
+        assertThat(contexts.get(0))
+                .isSameAs(RetryableContext.first());
+        assertThat(contexts.get(1))
+                .isNotSameAs(RetryableContext.first());
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#performAsync(ScheduledExecutorService)}.
+     *
+     * @throws Exception if an exception occurs.
+     */
+    @Test
+    public void performAsync_() throws Exception {
+        AtomicInteger tries = new AtomicInteger();
+        RetryableProcessor<String> processor = processor(context -> {
+            if (tries.incrementAndGet() < 3) {
+                throw new Exception("the cause message.");
+            }
+            return "the result.";
+        }, context -> context.interval(Duration.ofMillis(10L)));
+        assertThat(processor.performAsync(executor).get())
+                .isEqualTo("the result.");
+        assertThat(tries.get())
+                .isEqualTo(3);
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#performAsync(ScheduledExecutorService)}.
+     */
+    @Test
+    public void performAsync_cannotRetry() {
+        Exception cause = new Exception("the cause message.");
+        RetryableProcessor<String> processor = processor(context -> {
+            throw cause;
+        }, context -> {
+            throw new CannotRetryException("the exception message.", context.exception().get(), context);
+        });
+        CompletableFuture<String> future = processor.performAsync(executor);
+        assertThatThrownBy(() -> future.get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CannotRetryException.class);
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#performAsync(ScheduledExecutorService)}.
+     */
+    @Test
+    public void performAsync_passNullToExecutor() {
+        RetryableProcessor<String> processor = processor(context -> "the result.", RetryHandler.nop());
+        assertThatThrownBy(() -> processor.performAsync(null))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#performOn(java.util.concurrent.Executor)}.
+     */
+    @Test
+    public void performOn_() throws Exception {
+        Thread caller = Thread.currentThread();
+        AtomicInteger tries = new AtomicInteger();
+        RetryableProcessor<String> processor = processor(context -> {
+            if (tries.incrementAndGet() < 3) {
+                throw new Exception("the cause message.");
+            }
+            return "the result: " + (Thread.currentThread() == caller);
+        }, context -> context.interval(Duration.ofMillis(10L)));
+        assertThat(processor.performOn(executor).get())
+                .isEqualTo("the result: false");
+    }
+
+    /**
+     * Tests for {@link RetryableProcessor#performOnVirtualThread()}.
+     */
+    @Test
+    public void performOnVirtualThread_() throws Exception {
+        RetryableProcessor<String> processor = processor(context -> "the result.", RetryHandler.nop());
+        if (VirtualThreads.available()) {
+            assertThat(processor.performOnVirtualThread().get())
+                    .isEqualTo("the result.");
+        } else {
+            assertThatThrownBy(processor::performOnVirtualThread)
+                    .isInstanceOf(UnsupportedOperationException.class);
+        }
+    }
+
+    /**
+     * Returns a processor of the policy that has the retry handler.
+     *
+     * @param <T> the result type.
+     * @param process the retryable process.
+     * @param handler the retry handler.
+     * @return the processor.
+     */
+    private static <T> RetryableProcessor<T> processor(RetryableProcess<T> process, RetryHandler handler) {
+        return new Retryable().on(handler).process(process);
+    }
+
+}
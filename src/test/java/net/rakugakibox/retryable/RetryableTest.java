@@ -1,5 +1,13 @@
 package net.rakugakibox.retryable;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import org.junit.Test;
 
 /**
@@ -15,4 +23,217 @@ public class RetryableTest {
         new Retryable();
     }
 
+    /**
+     * Tests for {@link Retryable#call(RetryableProcess.Function)}.
+     */
+    @Test
+    public void call_() {
+        AtomicInteger tries = new AtomicInteger();
+        String result = new Retryable().retries(2L).call(context -> {
+            if (tries.incrementAndGet() < 3) {
+                throw new Exception("the cause message.");
+            }
+            return "the result: " + context.times() + " times, " + context.exceptions().size() + " exceptions";
+        });
+        assertThat(result)
+                .isEqualTo("the result: 3 times, 2 exceptions");
+    }
+
+    /**
+     * Tests for {@link Retryable#call(RetryableProcess.Function)}.
+     */
+    @Test
+    public void call_firstTime() {
+        String result = new Retryable().call(context -> {
+            return "the result: " + context.times() + " times, " + context.exceptions().size() + " exceptions";
+        });
+        assertThat(result)
+                .isEqualTo("the result: 1 times, 0 exceptions");
+    }
+
+    /**
+     * Tests for {@link Retryable#call(RetryableProcess.NonContextualFunction)}.
+     */
+    @Test
+    public void call_passNullToFunction() {
+        assertThatThrownBy(() -> new Retryable().call((RetryableProcess.NonContextualFunction<String>) null))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    /**
+     * Tests for {@link Retryable#checksFirst()}.
+     */
+    @Test
+    public void checksFirst_() {
+        AtomicInteger handled = new AtomicInteger();
+        Retryable retryable = new Retryable()
+                .on(context -> handled.incrementAndGet())
+                .retries(0L)
+                .checksFirst();
+        assertThatThrownBy(() -> retryable.run(() -> {
+            throw new Exception("the cause message.");
+        }))
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("Maximum number of retry attempts reached");
+        assertThat(handled.get())
+                .isEqualTo(0);
+    }
+
+    /**
+     * Tests for {@link Retryable#history(ExceptionHistory)}.
+     */
+    @Test
+    public void history_() {
+        AtomicInteger tries = new AtomicInteger();
+        Retryable retryable = new Retryable()
+                .retries(99L)
+                .history(ExceptionHistory.last(2).withSuppressed());
+        Throwable thrown = catchThrowable(() -> retryable.run(context -> {
+            assertThat(context.exceptions().size())
+                    .isLessThanOrEqualTo(2);
+            throw new Exception("the cause message: " + tries.incrementAndGet());
+        }));
+        assertThat(thrown)
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("Maximum number of retry attempts reached");
+        assertThat(thrown.getCause())
+                .hasMessage("the cause message: 100");
+        assertThat(thrown.getSuppressed())
+                .hasSize(1);
+        assertThat(thrown.getSuppressed()[0])
+                .hasMessage("the cause message: 99");
+        assertThat(((CannotRetryException) thrown).context().exceptionCount())
+                .isEqualTo(100L);
+    }
+
+    /**
+     * Tests for {@link Retryable#stackTraces(boolean)}.
+     */
+    @Test
+    public void stackTraces_false() {
+        Retryable retryable = new Retryable()
+                .retries(1L)
+                .stackTraces(false)
+                .history(ExceptionHistory.last(3));
+        Throwable thrown = catchThrowable(() -> retryable.run(() -> {
+            throw new Exception("the cause message.");
+        }));
+        assertThat(thrown)
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("Maximum number of retry attempts reached");
+        assertThat(thrown.getStackTrace())
+                .isEmpty();
+        assertThat(thrown.getCause().getStackTrace())
+                .isNotEmpty();
+        assertThat(((CannotRetryException) thrown).context().exceptionCount())
+                .isEqualTo(2L);
+    }
+
+    /**
+     * Tests for {@link Retryable#retryIf(java.util.function.Predicate)}.
+     */
+    @Test
+    public void retryIf_() {
+        AtomicInteger tries = new AtomicInteger();
+        List<Object> rejected = new ArrayList<>();
+        Integer result = new Retryable()
+                .on(TimeoutException.class)
+                .retryIf(status -> (Integer) status >= 500)
+                .call(context -> {
+                    context.rejectedResult().ifPresent(rejected::add);
+                    return tries.incrementAndGet() < 3 ? 503 : 200;
+                });
+        assertThat(result)
+                .isEqualTo(200);
+        assertThat(rejected)
+                .containsExactly(503, 503);
+    }
+
+    /**
+     * Tests for {@link Retryable#retryIf(java.util.function.Predicate)}.
+     */
+    @Test
+    public void retryIf_predicateThrowsException() {
+        AtomicInteger tries = new AtomicInteger();
+        Retryable retryable = new Retryable()
+                .retries(3L)
+                .retryIf(status -> (Integer) status >= 500);
+        assertThatThrownBy(() -> retryable.call(() -> {
+            tries.incrementAndGet();
+            return "the result.";
+        }))
+                .isInstanceOf(ClassCastException.class);
+        assertThat(tries.get())
+                .isEqualTo(1);
+    }
+
+    /**
+     * Tests for {@link Retryable#retryIf(Class, java.util.function.Predicate)}.
+     */
+    @Test
+    public void retryIf_typed() {
+        AtomicInteger tries = new AtomicInteger();
+        Retryable retryable = new Retryable()
+                .retries(3L)
+                .retryIf(Integer.class, status -> status >= 500);
+        assertThat(retryable.call(() -> tries.incrementAndGet() < 3 ? (Object) 503 : "the result."))
+                .isEqualTo("the result.");
+        assertThat(tries.get())
+                .isEqualTo(3);
+    }
+
+    /**
+     * Tests for {@link Retryable#retryIf(java.util.function.Predicate)}.
+     */
+    @Test
+    public void retryIf_exhausted() {
+        Throwable thrown = catchThrowable(() -> new Retryable()
+                .retries(2L)
+                .retryIf(value -> value == null)
+                .call(() -> null));
+        assertThat(thrown)
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("Maximum number of retry attempts reached");
+        assertThat(thrown.getCause())
+                .isInstanceOf(RejectedResultException.class)
+                .hasMessage("The result was rejected: null");
+        assertThat(thrown.getCause().getStackTrace())
+                .isEmpty();
+        assertThat(((CannotRetryException) thrown).context().exceptionCount())
+                .isEqualTo(3L);
+    }
+
+    /**
+     * Tests for {@link Retryable#deadline(Duration)}.
+     */
+    @Test
+    public void deadline_() {
+        AtomicInteger tries = new AtomicInteger();
+        Retryable retryable = new Retryable()
+                .interval(Duration.ofMillis(50L))
+                .deadline(Duration.ofMillis(120L));
+        Throwable thrown = catchThrowable(() -> retryable.run(() -> {
+            tries.incrementAndGet();
+            throw new Exception("the cause message.");
+        }));
+        assertThat(thrown)
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The deadline would be exceeded");
+        assertThat(thrown.getCause())
+                .hasMessage("the cause message.");
+        assertThat(tries.get())
+                .isGreaterThanOrEqualTo(1)
+                .isLessThanOrEqualTo(3);
+    }
+
+    /**
+     * Tests for {@link Retryable#deadline(Duration)}.
+     */
+    @Test
+    public void deadline_passNegative() {
+        assertThatThrownBy(() -> new Retryable().deadline(Duration.ofMillis(-1L)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The deadline is negative.");
+    }
+
 }
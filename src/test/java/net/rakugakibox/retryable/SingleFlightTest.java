@@ -0,0 +1,161 @@
+package net.rakugakibox.retryable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test of {@link SingleFlight}.
+ */
+public class SingleFlightTest {
+
+    /**
+     * The executor of the callers.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Sets up.
+     */
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    /**
+     * Tears down.
+     */
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests for {@link Retryable#perform(SingleFlight, Object, RetryableProcess)}.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void perform_() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger tries = new AtomicInteger();
+        Retryable retryable = new Retryable().retries(1L);
+        RetryableProcess<String> process = context -> {
+            tries.incrementAndGet();
+            release.await();
+            return "the result.";
+        };
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(
+                () -> retryable.perform(flight, "the key.", process), executor);
+        while (flight.inProgress() == 0) {
+            Thread.sleep(1L);
+        }
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(
+                () -> retryable.perform(flight, "the key.", process), executor);
+        Thread.sleep(100L);
+        release.countDown();
+        assertThat(leader.get())
+                .isEqualTo("the result.");
+        assertThat(follower.get())
+                .isEqualTo("the result.");
+        assertThat(tries.get())
+                .isEqualTo(1);
+        assertThat(flight.inProgress())
+                .isEqualTo(0);
+    }
+
+    /**
+     * Tests for {@link Retryable#perform(SingleFlight, Object, RetryableProcess)}.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void perform_cannotRetry() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger tries = new AtomicInteger();
+        Retryable retryable = new Retryable().retries(1L);
+        RetryableProcess<String> process = context -> {
+            tries.incrementAndGet();
+            release.await();
+            throw new Exception("the cause message.");
+        };
+        CompletableFuture<Throwable> leader = CompletableFuture.supplyAsync(
+                () -> catchThrowable(() -> retryable.perform(flight, "the key.", process)), executor);
+        while (flight.inProgress() == 0) {
+            Thread.sleep(1L);
+        }
+        CompletableFuture<Throwable> follower = CompletableFuture.supplyAsync(
+                () -> catchThrowable(() -> retryable.perform(flight, "the key.", process)), executor);
+        Thread.sleep(100L);
+        release.countDown();
+        assertThat(leader.get())
+                .isInstanceOf(CannotRetryException.class)
+                .isNotSameAs(follower.get());
+        assertThat(follower.get())
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage(leader.get().getMessage())
+                .hasCause(leader.get());
+        assertThat(tries.get())
+                .isEqualTo(2);
+        assertThat(catchThrowable(() -> retryable.perform(flight, "the key.", process)))
+                .isInstanceOf(CannotRetryException.class);
+        assertThat(tries.get())
+                .isEqualTo(4);
+    }
+
+    /**
+     * Tests for {@link Retryable#perform(SingleFlight, Object, RetryableProcess)}.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    public void perform_interrupted() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        Retryable retryable = new Retryable();
+        RetryableProcess<String> process = context -> {
+            release.await();
+            return "the result.";
+        };
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(
+                () -> retryable.perform(flight, "the key.", process), executor);
+        while (flight.inProgress() == 0) {
+            Thread.sleep(1L);
+        }
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        Future<?> follower = executor.submit(() -> {
+            thrown.set(catchThrowable(() -> retryable.perform(flight, "the key.", process)));
+            interrupted.set(Thread.currentThread().isInterrupted());
+            done.countDown();
+        });
+        Thread.sleep(100L);
+        follower.cancel(true);
+        assertThat(done.await(5L, TimeUnit.SECONDS))
+                .isTrue();
+        assertThat(thrown.get())
+                .isInstanceOf(CannotRetryException.class)
+                .hasMessage("The wait for the process in progress was interrupted")
+                .hasCauseInstanceOf(InterruptedException.class);
+        assertThat(interrupted.get())
+                .isTrue();
+        release.countDown();
+        assertThat(leader.get())
+                .isEqualTo("the result.");
+    }
+
+}
@@ -0,0 +1,103 @@
+package net.rakugakibox.retryable;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test of {@link StageProcessor}.
+ */
+public class StageProcessorTest {
+
+    /**
+     * The scheduler.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Sets up the scheduler.
+     */
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Shuts down the scheduler.
+     */
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Tests for {@link Retryable#callStage(java.util.function.Supplier, ScheduledExecutorService)}.
+     */
+    @Test
+    public void callStage_() throws Exception {
+        AtomicInteger tries = new AtomicInteger();
+        CompletableFuture<String> future = new Retryable()
+                .interval(Duration.ofMillis(10L))
+                .callStage(() -> {
+                    CompletableFuture<String> stage = new CompletableFuture<>();
+                    if (tries.incrementAndGet() < 3) {
+                        stage.completeExceptionally(new Exception("the cause message."));
+                    } else {
+                        stage.complete("the result.");
+                    }
+                    return stage;
+                }, scheduler);
+        assertThat(future.get())
+                .isEqualTo("the result.");
+        assertThat(tries.get())
+                .isEqualTo(3);
+    }
+
+    /**
+     * Tests for {@link Retryable#performStage(RetryableStage, ScheduledExecutorService)}.
+     */
+    @Test
+    public void performStage_cannotRetry() {
+        CompletableFuture<String> future = new Retryable()
+                .retries(1L)
+                .performStage(context -> {
+                    if (context.times() == 1L) {
+                        throw new Exception("the cause message.");
+                    }
+                    return CompletableFuture.supplyAsync(() -> {
+                        throw new IllegalStateException("the cause message.");
+                    });
+                }, scheduler);
+        assertThatThrownBy(future::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CannotRetryException.class);
+        assertThat(((CannotRetryException) catchCause(future)).context().times())
+                .isEqualTo(2L);
+    }
+
+    /**
+     * Returns the cause of the exceptionally completed future.
+     *
+     * @param future the future.
+     * @return the cause.
+     */
+    private static Throwable catchCause(CompletableFuture<?> future) {
+        try {
+            future.get();
+            throw new AssertionError("The future completed normally.");
+        } catch (ExecutionException exc) {
+            return exc.getCause();
+        } catch (InterruptedException exc) {
+            throw new AssertionError(exc);
+        }
+    }
+
+}